@@ -18,9 +18,8 @@ import androidx.core.view.WindowCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.core.view.WindowInsetsControllerCompat;
 import android.graphics.Color;
-import java.util.HashMap;
+import java.util.BitSet;
 import java.util.Locale;
-import java.util.Map;
 
 public class GameActivity extends AppCompatActivity {
     private GameView gameView;
@@ -28,7 +27,7 @@ public class GameActivity extends AppCompatActivity {
     private TextView statusDisplay;
     private EditText inputField;
     private Button readyButton;
-    private Map<String, Player> players;
+    private PlayerView[] players; // indexed by lobby slot
     private WordRound currentWordRound;
     private long roundEndTime;
     private Handler timerHandler;
@@ -38,6 +37,9 @@ public class GameActivity extends AppCompatActivity {
     private static final long TYPING_THROTTLE_MS = 50;
     private long lastTypingSentTime = 0;
     private String lastSentText = "";
+    private int typingSeq = 0;
+    // slots whose edits we lost and asked the server to resend in full
+    private final BitSet typingResyncRequested = new BitSet();
     private final Handler typingHandler = new Handler(Looper.getMainLooper());
     private Runnable pendingTypingRunnable;
 
@@ -56,7 +58,7 @@ public class GameActivity extends AppCompatActivity {
 
         setContentView(R.layout.activity_game);
 
-        players = new HashMap<>();
+        players = new PlayerView[0];
 
         gameView = findViewById(R.id.gameView);
         TextView wordDisplay = findViewById(R.id.wordDisplay);
@@ -131,18 +133,59 @@ public class GameActivity extends AppCompatActivity {
     }
 
     private void sendTypingUpdate(String text) {
+        TypingDelta delta = TypingDelta.between(0, typingSeq + 1, lastSentText, text);
+        if (delta == null) return;
+        typingSeq++;
         lastSentText = text;
         lastTypingSentTime = System.currentTimeMillis();
-        NetworkManager.getInstance().sendMessage(new Message(MessageType.TYPING_UPDATE, text));
+        // Prefer the lossy UDP channel for typing, fall back to the TCP delta without it
+        if (!NetworkManager.getInstance().sendTypingSnapshot(typingSeq, text)) {
+            NetworkManager.getInstance().sendMessage(new Message(MessageType.TYPING_UPDATE, delta));
+        }
+    }
+
+    private void sendTypingResync() {
+        typingSeq++;
+        NetworkManager.getInstance().sendMessage(new Message(MessageType.TYPING_UPDATE,
+                TypingDelta.replace(0, typingSeq, lastSentText)));
+    }
+
+    private void applyTypingDelta(TypingDelta delta) {
+        int slot = delta.getPlayerSlot();
+        PlayerView typingPlayer = slot < players.length ? players[slot] : null;
+        if (typingPlayer == null) return;
+
+        int expectedSeq = typingPlayer.getTypingSeq() + 1;
+        if (delta.getSeq() < expectedSeq) return; // older than what we already show
+
+        String updated = null;
+        if (delta.getOp() == TypingDelta.Op.REPLACE || delta.getSeq() == expectedSeq) {
+            updated = delta.applyTo(typingPlayer.getCurrentTypedText());
+        }
+        if (updated == null) {
+            // Missed an edit for this player, ask for the full text once
+            if (!typingResyncRequested.get(slot)) {
+                typingResyncRequested.set(slot);
+                NetworkManager.getInstance().sendMessage(new Message(MessageType.TYPING_RESYNC, slot));
+            }
+            return;
+        }
+        typingResyncRequested.clear(slot);
+        players[slot] = typingPlayer.withTypedText(updated, delta.getSeq());
+        gameView.updatePlayers(players);
     }
 
     private void handleMessage(Message message) {
         switch (message.getType()) {
             case PLAYER_LIST_UPDATE:
-                Player[] playerArray = (Player[]) message.getData();
-                players.clear();
-                for (Player player : playerArray) {
-                    players.put(player.getId(), player);
+                PlayerView[] playerArray = (PlayerView[]) message.getData();
+                int slotCount = 0;
+                for (PlayerView player : playerArray) {
+                    slotCount = Math.max(slotCount, player.getSlot() + 1);
+                }
+                players = new PlayerView[slotCount];
+                for (PlayerView player : playerArray) {
+                    players[player.getSlot()] = player;
                 }
                 gameView.updatePlayers(players);
                 break;
@@ -167,7 +210,7 @@ public class GameActivity extends AppCompatActivity {
 
             case NEW_WORD:
                 currentWordRound = (WordRound) message.getData();
-                roundEndTime = System.currentTimeMillis() + currentWordRound.getTimeoutMs();
+                roundEndTime = computeRoundEndTime(currentWordRound);
 
                 // Clear any center message from previous round
                 gameView.clearCenterMessage();
@@ -209,25 +252,30 @@ public class GameActivity extends AppCompatActivity {
                 break;
 
             case TYPING_UPDATE:
+                applyTypingDelta((TypingDelta) message.getData());
+                break;
+
+            case TYPING_RESYNC:
+                sendTypingResync();
+                break;
+
             case SCORE_UPDATE:
-                Player typingPlayer = (Player) message.getData();
-                if (players.containsKey(typingPlayer.getId())) {
-                    players.put(typingPlayer.getId(), typingPlayer);
+                PlayerView scoredPlayer = (PlayerView) message.getData();
+                if (replacePlayer(scoredPlayer)) {
                     gameView.updatePlayers(players);
                 }
                 break;
 
             case PLAYER_ELIMINATED:
-                Player eliminatedPlayer = (Player) message.getData();
-                if (players.containsKey(eliminatedPlayer.getId())) {
-                    players.put(eliminatedPlayer.getId(), eliminatedPlayer);
+                PlayerView eliminatedPlayer = (PlayerView) message.getData();
+                if (replacePlayer(eliminatedPlayer)) {
                     gameView.updatePlayers(players);
                 }
                 gameView.setCenterMessage(eliminatedPlayer.getUsername() + " eliminated!");
                 break;
 
             case GAME_ENDED:
-                Player winner = (Player) message.getData();
+                PlayerView winner = (PlayerView) message.getData();
                 String winnerText = winner != null ? winner.getUsername() + " wins!" : "Game ended!";
                 statusDisplay.setText(winnerText);
                 inputField.setEnabled(false);
@@ -242,6 +290,17 @@ public class GameActivity extends AppCompatActivity {
                 break;
         }
     }
+
+    // Swaps in a newer view of a seated player, false if that slot is empty here
+    private boolean replacePlayer(PlayerView player) {
+        int slot = player.getSlot();
+        if (slot < 0 || slot >= players.length || players[slot] == null) {
+            return false;
+        }
+        players[slot] = player;
+        return true;
+    }
+
     private void clearInputField() {
         inputField.setText("");
         lastSentText = "";
@@ -260,12 +319,22 @@ public class GameActivity extends AppCompatActivity {
         return false;
     }
 
+    // Round end on the NetworkManager clock: the server's absolute deadline once clocks are
+    // synced, otherwise the old estimate from our own receive time
+    private long computeRoundEndTime(WordRound round) {
+        NetworkManager network = NetworkManager.getInstance();
+        if (network.isClockSynced() && round.getDeadlineServerTime() > 0) {
+            return network.toLocalTime(round.getDeadlineServerTime());
+        }
+        return network.localClockMillis() + round.getTimeoutMs();
+    }
+
     private void startTimer() {
         timerDisplay.setTextColor(Color.parseColor("#FF5252")); // Red for game timer
         timerRunnable = new Runnable() {
             @Override
             public void run() {
-                long remaining = roundEndTime - System.currentTimeMillis();
+                long remaining = roundEndTime - NetworkManager.getInstance().localClockMillis();
                 if (remaining > 0) {
                     timerDisplay.setText(String.format(Locale.US, "%.1f", remaining / 1000.0));
                     timerHandler.postDelayed(this, 100);
@@ -8,7 +8,6 @@ import android.util.AttributeSet;
 import android.view.View;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class GameView extends View {
     private Paint circlePaint;
@@ -18,7 +17,7 @@ public class GameView extends View {
     private Paint wordPaint;
     private Paint claimedWordPaint;
     private Paint claimerTextPaint;
-    private List<Player> players;
+    private List<PlayerView> players;
     private float centerX;
     private float centerY;
     private float mainCircleRadius;
@@ -94,9 +93,13 @@ public class GameView extends View {
         centerMessagePaint.setFakeBoldText(true);
     }
 
-    public void updatePlayers(Map<String, Player> playerMap) {
+    public void updatePlayers(PlayerView[] playerSlots) {
         players.clear();
-        players.addAll(playerMap.values());
+        for (PlayerView player : playerSlots) {
+            if (player != null) {
+                players.add(player);
+            }
+        }
         invalidate();
     }
 
@@ -160,7 +163,7 @@ public class GameView extends View {
         double angleStep = (2 * Math.PI) / playerCount;
 
         for (int i = 0; i < playerCount; i++) {
-            Player player = players.get(i);
+            PlayerView player = players.get(i);
             double angle = i * angleStep - Math.PI / 2;
 
             float x = centerX + (float) (mainCircleRadius * Math.cos(angle));
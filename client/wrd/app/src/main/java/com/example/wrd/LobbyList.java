@@ -0,0 +1,45 @@
+package com.example.wrd;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+// LOBBY_LIST and LOBBY_LIST_DELTA payload: the directory version plus the entries the server
+// pre-encoded for it. A delta only holds the lobbies that changed after baseVersion.
+public class LobbyList implements Externalizable {
+    private static final long serialVersionUID = 436;
+
+    private long version;
+    private long baseVersion; // 0 for a full list
+    private LobbyInfo[] lobbies;
+
+    // for deserialization only
+    public LobbyList() {}
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        throw new IOException("LobbyList is only sent by the server");
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        version = in.readLong();
+        baseVersion = in.readLong();
+        byte[] encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        DataInputStream entries = new DataInputStream(new ByteArrayInputStream(encoded));
+        lobbies = new LobbyInfo[entries.readInt()];
+        for (int i = 0; i < lobbies.length; i++) {
+            lobbies[i] = new LobbyInfo(entries.readUTF(), entries.readUTF(), entries.readInt(),
+                    entries.readInt(), entries.readBoolean());
+        }
+    }
+
+    public long getVersion() { return version; }
+    public long getBaseVersion() { return baseVersion; }
+    public boolean isDelta() { return baseVersion != 0; }
+    public LobbyInfo[] getLobbies() { return lobbies; }
+}
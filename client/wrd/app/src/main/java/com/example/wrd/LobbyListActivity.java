@@ -9,6 +9,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
+import android.widget.AbsListView;
 import android.widget.BaseAdapter;
 import android.widget.ListView;
 import android.widget.TextView;
@@ -18,19 +19,29 @@ import androidx.core.view.WindowCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.core.view.WindowInsetsControllerCompat;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 
 public class LobbyListActivity extends AppCompatActivity {
-    private static final long AUTO_REFRESH_INTERVAL = 500; // 0.5 seconds
+    private static final int LOBBY_PAGE_SIZE = 20;
+    private static final int LOAD_MORE_THRESHOLD = 5; // rows left below the fold before the next page is fetched
+    private static final long THROTTLED_RETRY_MS = 500; // wait before repeating a request the server throttled
+    private static final LobbyQuery ALL_LOBBIES = new LobbyQuery(null, 0, null, null, LOBBY_PAGE_SIZE);
 
     private LobbyAdapter adapter;
     private ArrayList<LobbyInfo> lobbies;
     private boolean isJoiningLobby = false;
     private NetworkManager.MessageListener messageListener;
-    private Handler autoRefreshHandler;
-    private Runnable autoRefreshRunnable;
+    // directory version each loaded lobby is current to, older pushes for it are ignored
+    private final HashMap<String, Long> lobbyVersions = new HashMap<>();
+    private String nextLobbyCursor; // null once the last page is loaded
+    private boolean loadingLobbyPage = false;
+    private boolean firstPagePending = false;
+    // tag of the outstanding page request; a page requested before onPause can still come in
+    // after the next subscribe and must not be taken for its first page
+    private long pageRequestTag;
+    private final Handler retryHandler = new Handler(Looper.getMainLooper());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -59,48 +70,56 @@ public class LobbyListActivity extends AppCompatActivity {
             }
         });
 
-        // Create message listener
-        messageListener = message -> runOnUiThread(() -> handleMessage(message));
+        // Fetch the next page shortly before the user scrolls to the end of what is loaded
+        lobbyListView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {}
 
-        // Setup auto-refresh
-        autoRefreshHandler = new Handler(Looper.getMainLooper());
-        autoRefreshRunnable = () -> {
-            if (!isJoiningLobby) {
-                loadLobbies();
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (firstVisibleItem + visibleItemCount >= totalItemCount - LOAD_MORE_THRESHOLD) {
+                    loadNextLobbyPage();
+                }
             }
-            autoRefreshHandler.postDelayed(autoRefreshRunnable, AUTO_REFRESH_INTERVAL);
-        };
+        });
+
+        // Create message listener
+        messageListener = message -> runOnUiThread(() -> handleMessage(message));
 
         NetworkManager.getInstance().setMessageListener(messageListener);
-        loadLobbies();
     }
 
     @Override
     protected void onResume() {
         super.onResume();
         NetworkManager.getInstance().setMessageListener(messageListener);
-        // Start auto-refresh
-        autoRefreshHandler.post(autoRefreshRunnable);
+        subscribe();
+    }
+
+    private void subscribe() {
+        // The server answers with the first page and pushes changes while we are subscribed
+        loadingLobbyPage = true;
+        firstPagePending = true;
+        NetworkManager.getInstance().sendMessage(new Message(MessageType.SUBSCRIBE_LOBBIES,
+                ALL_LOBBIES.tagged(++pageRequestTag)));
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        // Stop auto-refresh when activity is not visible
-        autoRefreshHandler.removeCallbacks(autoRefreshRunnable);
-    }
-
-    private void loadLobbies() {
-        NetworkManager.getInstance().sendMessage(new Message(MessageType.GET_LOBBIES, null));
+        retryHandler.removeCallbacksAndMessages(null);
+        // No pushes while the activity is not visible
+        NetworkManager.getInstance().sendMessage(new Message(MessageType.UNSUBSCRIBE_LOBBIES, null));
     }
 
     private void handleMessage(Message message) {
         switch (message.getType()) {
-            case LOBBY_LIST:
-                LobbyInfo[] lobbyArray = (LobbyInfo[]) message.getData();
-                lobbies.clear();
-                Collections.addAll(lobbies, lobbyArray);
-                adapter.notifyDataSetChanged();
+            case LOBBY_PAGE:
+                applyLobbyPage((LobbyPage) message.getData());
+                break;
+
+            case LOBBY_LIST_DELTA:
+                applyLobbyDelta((LobbyList) message.getData());
                 break;
 
             case JOIN_LOBBY_SUCCESS:
@@ -116,7 +135,66 @@ public class LobbyListActivity extends AppCompatActivity {
                 Toast.makeText(this, "Failed to join: " + error, Toast.LENGTH_SHORT).show();
                 isJoiningLobby = false;
                 break;
+
+            case REQUEST_THROTTLED:
+                if (message.getData() == MessageType.SUBSCRIBE_LOBBIES) {
+                    retryHandler.postDelayed(this::subscribe, THROTTLED_RETRY_MS);
+                } else if (message.getData() == MessageType.GET_LOBBIES && !firstPagePending) {
+                    // the next scroll asks again
+                    loadingLobbyPage = false;
+                }
+                break;
+        }
+    }
+
+    private void loadNextLobbyPage() {
+        if (loadingLobbyPage || nextLobbyCursor == null) return;
+        loadingLobbyPage = true;
+        NetworkManager.getInstance().sendMessage(new Message(MessageType.GET_LOBBIES,
+                ALL_LOBBIES.after(nextLobbyCursor).tagged(++pageRequestTag)));
+    }
+
+    private void applyLobbyPage(LobbyPage page) {
+        if (!loadingLobbyPage || page.getTag() != pageRequestTag) {
+            return; // answer to a request that was superseded
+        }
+        if (firstPagePending) {
+            firstPagePending = false;
+            lobbies.clear();
+            lobbyVersions.clear();
+        }
+        loadingLobbyPage = false;
+        nextLobbyCursor = page.getNextCursor();
+        // pages follow the name order, so each one simply extends the list
+        for (LobbyInfo lobby : page.getLobbies()) {
+            lobbies.add(lobby);
+            lobbyVersions.put(lobby.getId(), page.getVersion());
+        }
+        adapter.notifyDataSetChanged();
+    }
+
+    // Updates loaded lobbies in place; the others arrive current with their page
+    private void applyLobbyDelta(LobbyList delta) {
+        boolean changed = false;
+        for (LobbyInfo lobby : delta.getLobbies()) {
+            Long loadedAt = lobbyVersions.get(lobby.getId());
+            if (loadedAt == null || loadedAt >= delta.getVersion()) continue;
+            lobbies.set(indexOfLobby(lobby.getId()), lobby);
+            lobbyVersions.put(lobby.getId(), delta.getVersion());
+            changed = true;
+        }
+        if (changed) {
+            adapter.notifyDataSetChanged();
+        }
+    }
+
+    private int indexOfLobby(String lobbyId) {
+        for (int i = 0; i < lobbies.size(); i++) {
+            if (lobbies.get(i).getId().equals(lobbyId)) {
+                return i;
+            }
         }
+        return -1;
     }
 
     private void joinLobby(LobbyInfo lobby) {
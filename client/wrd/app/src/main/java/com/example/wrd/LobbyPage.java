@@ -0,0 +1,24 @@
+package com.example.wrd;
+import java.io.Serializable;
+
+// One page of a LobbyQuery, ordered by name. nextCursor is null on the last page, tag is the
+// query's.
+public class LobbyPage implements Serializable {
+    private static final long serialVersionUID = 436;
+    private final LobbyInfo[] lobbies;
+    private final String nextCursor;
+    private final long version;
+    private final long tag;
+
+    public LobbyPage(LobbyInfo[] lobbies, String nextCursor, long version, long tag) {
+        this.lobbies = lobbies;
+        this.nextCursor = nextCursor;
+        this.version = version;
+        this.tag = tag;
+    }
+
+    public LobbyInfo[] getLobbies() { return lobbies; }
+    public String getNextCursor() { return nextCursor; }
+    public long getVersion() { return version; }
+    public long getTag() { return tag; }
+}
@@ -0,0 +1,40 @@
+package com.example.wrd;
+import java.io.Serializable;
+
+// Filtered, paginated GET_LOBBIES. Null filters match everything; after is the nextCursor of
+// the previous LobbyPage, null for the first page. tag is echoed in the LobbyPage so a client
+// can tell the answer to its latest request from a late one.
+public class LobbyQuery implements Serializable {
+    private static final long serialVersionUID = 436;
+    private final Boolean gameActive;
+    private final int minFreeSlots;
+    private final String namePrefix;
+    private final String after;
+    private final int pageSize;
+    private final long tag;
+
+    public LobbyQuery(Boolean gameActive, int minFreeSlots, String namePrefix, String after, int pageSize) {
+        this(gameActive, minFreeSlots, namePrefix, after, pageSize, 0);
+    }
+
+    public LobbyQuery(Boolean gameActive, int minFreeSlots, String namePrefix, String after, int pageSize, long tag) {
+        this.gameActive = gameActive;
+        this.minFreeSlots = minFreeSlots;
+        this.namePrefix = namePrefix;
+        this.after = after;
+        this.pageSize = pageSize;
+        this.tag = tag;
+    }
+
+    // Same filters, starting after the given cursor
+    public LobbyQuery after(String cursor) {
+        return new LobbyQuery(gameActive, minFreeSlots, namePrefix, cursor, pageSize, tag);
+    }
+
+    // Same query, answered with a LobbyPage carrying this tag
+    public LobbyQuery tagged(long tag) {
+        return new LobbyQuery(gameActive, minFreeSlots, namePrefix, after, pageSize, tag);
+    }
+
+    public String getAfter() { return after; }
+}
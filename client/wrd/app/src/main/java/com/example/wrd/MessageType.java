@@ -4,13 +4,18 @@ import java.io.Serializable;
 public enum MessageType implements Serializable {
     // Client to Server
     JOIN_SERVER,
-    GET_LOBBIES,
+    GET_LOBBIES, // null, known list version, or a LobbyQuery for one page
     JOIN_LOBBY,
     LEAVE_LOBBY,
     PLAYER_READY,
     TYPING_UPDATE,
     SUBMIT_ANSWER,
     REQUEST_PLAYER_LIST,
+    TYPING_RESYNC, // both directions: ask the other side for a full-text TYPING_UPDATE
+    PONG, // echoes the PING payload
+    TIME_SYNC, // both directions: clock probe and its reply
+    SUBSCRIBE_LOBBIES, // push lobby list changes instead of polling, optional LobbyQuery for the first page
+    UNSUBSCRIBE_LOBBIES,
 
     // Server to Client
     JOIN_SERVER_RESPONSE,
@@ -26,6 +31,16 @@ public enum MessageType implements Serializable {
     REST_PERIOD,
     SCORE_UPDATE,
     PLAYER_ELIMINATED,
-    WORD_CLAIMED
+    WORD_CLAIMED,
+    UDP_OFFER, // token to echo over UDP to switch typing snapshots to the datagram channel
+    UDP_READY, // a probe ack came back over UDP, typing snapshots may use the datagram channel
+    UDP_LOST, // probe acks stopped arriving, typing is back on TCP until the next ack
+    PING, // per-connection sequence number, echoed back in PONG; the server keeps the send times
+    LOBBY_LIST_NOT_MODIFIED, // GET_LOBBIES named the current directory version
+    LOBBY_LIST_DELTA, // lobbies changed since the previous push, for subscribers
+    LOBBY_PAGE, // answer to a GET_LOBBIES or SUBSCRIBE_LOBBIES carrying a LobbyQuery
+    JOIN_SERVER_FAILED, // reason, e.g. the username is already logged in
+    SERVER_BUSY, // connection shed at accept time, payload is the ms to wait before retrying
+    REQUEST_THROTTLED // a request over its rate limit that has no failure frame of its own, payload is its MessageType
 }
 
@@ -1,7 +1,15 @@
 package com.example.wrd;
 
 import java.io.*;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
 import java.net.Socket;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Locale;
 import java.util.concurrent.*;
 
 public class NetworkManager {
@@ -12,10 +20,34 @@ public class NetworkManager {
     private ObjectInputStream input;
     private MessageListener messageListener;
     private volatile boolean connected;
+    private String host;
+    private int port;
+
+    // Optional UDP channel for typing snapshots, TCP is used until the server confirms it.
+    // Hellos keep going after that: each one is probed and acked, which keeps the server's
+    // UDP path alive and lets it fall back to TCP (UDP_LOST) when the acks stop.
+    private static final int UDP_HELLO_ATTEMPTS = 5;
+    private static final long UDP_HELLO_INTERVAL_MS = 300;
+    private static final long UDP_KEEPALIVE_INTERVAL_MS = 1000;
+    private DatagramSocket udpSocket;
+    private long udpToken;
+    private volatile boolean udpReady;
 
     // Single thread executor for sending messages
     private final ExecutorService sendExecutor = Executors.newSingleThreadExecutor();
 
+    // NTP-style clock sync: a burst after connecting, then a probe every few seconds.
+    // The offset comes from the lowest-RTT recent probe, which has the least asymmetry.
+    private static final int CLOCK_SYNC_BURST = 5;
+    private static final long CLOCK_SYNC_BURST_INTERVAL_MS = 200;
+    private static final long CLOCK_SYNC_INTERVAL_MS = 10000;
+    private static final int CLOCK_SYNC_WINDOW = 8;
+    private final ScheduledExecutorService clockSyncExecutor = Executors.newSingleThreadScheduledExecutor();
+    private final ArrayDeque<long[]> clockSamples = new ArrayDeque<>(); // {offset, rtt}
+    private ScheduledFuture<?> clockSyncTask;
+    private volatile long clockOffset; // server time minus local clock
+    private volatile boolean clockSynced;
+
     public interface ConnectionCallback {
         void onConnected();
         void onConnectionFailed(String error);
@@ -39,6 +71,8 @@ public class NetworkManager {
     public void connect(String host, int port, String username, ConnectionCallback callback) {
         new Thread(() -> {
             try {
+                this.host = host;
+                this.port = port;
                 socket = new Socket(host, port);
                 output = new ObjectOutputStream(socket.getOutputStream());
                 output.flush();
@@ -46,11 +80,20 @@ public class NetworkManager {
 
                 connected = true;
 
-                // Send join server message
+                // Send join server message and wait for the verdict before reporting success
                 sendMessageInternal(new Message(MessageType.JOIN_SERVER, username));
+                String failure = awaitJoinResponse();
+                if (failure != null) {
+                    disconnect();
+                    if (callback != null) {
+                        callback.onConnectionFailed(failure);
+                    }
+                    return;
+                }
 
                 // Start receive thread
                 startReceiveThread();
+                startClockSync();
 
                 if (callback != null) {
                     callback.onConnected();
@@ -64,11 +107,54 @@ public class NetworkManager {
         }).start();
     }
 
+    // Reads until the server accepts or rejects the login, null on success
+    private String awaitJoinResponse() throws IOException, ClassNotFoundException {
+        while (true) {
+            Message message = (Message) input.readObject();
+            switch (message.getType()) {
+                case JOIN_SERVER_RESPONSE:
+                    return null;
+                case JOIN_SERVER_FAILED:
+                    return (String) message.getData();
+                case SERVER_BUSY:
+                    // shed at accept time, the server tells us how long to back off
+                    long retryAfterMs = (Long) message.getData();
+                    return String.format(Locale.US, "Server busy, try again in %.0f s", Math.ceil(retryAfterMs / 1000.0));
+                case PING:
+                    sendMessageInternal(new Message(MessageType.PONG, message.getData()));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     private void startReceiveThread() {
         Thread receiveThread = new Thread(() -> {
             while (connected) {
                 try {
                     Message message = (Message) input.readObject();
+                    if (message.getType() == MessageType.PING) {
+                        // answer right away from this thread so the RTT is not skewed by the send queue
+                        sendMessageInternal(new Message(MessageType.PONG, message.getData()));
+                        continue;
+                    }
+                    if (message.getType() == MessageType.TIME_SYNC) {
+                        onClockSample((TimeSync) message.getData(), localClockMillis());
+                        continue;
+                    }
+                    if (message.getType() == MessageType.UDP_OFFER) {
+                        startUdp((Long) message.getData());
+                        continue;
+                    }
+                    if (message.getType() == MessageType.UDP_READY) {
+                        udpReady = true;
+                        continue;
+                    }
+                    if (message.getType() == MessageType.UDP_LOST) {
+                        udpReady = false;
+                        continue;
+                    }
                     if (messageListener != null) {
                         messageListener.onMessageReceived(message);
                     }
@@ -87,6 +173,138 @@ public class NetworkManager {
         receiveThread.start();
     }
 
+    // Monotonic local clock used for everything compared against server time
+    public long localClockMillis() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    public boolean isClockSynced() {
+        return clockSynced;
+    }
+
+    // Converts a server-time instant (e.g. a round deadline) to localClockMillis()
+    public long toLocalTime(long serverTime) {
+        return serverTime - clockOffset;
+    }
+
+    private void startClockSync() {
+        synchronized (clockSamples) {
+            clockSamples.clear();
+        }
+        clockSynced = false;
+        for (int i = 1; i < CLOCK_SYNC_BURST; i++) {
+            clockSyncExecutor.schedule(this::sendClockProbe, i * CLOCK_SYNC_BURST_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        clockSyncTask = clockSyncExecutor.scheduleAtFixedRate(this::sendClockProbe, 0,
+                CLOCK_SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void sendClockProbe() {
+        if (!connected) return;
+        // written directly so the send timestamp is not skewed by the send queue
+        sendMessageInternal(new Message(MessageType.TIME_SYNC, new TimeSync(localClockMillis())));
+    }
+
+    private void onClockSample(TimeSync sync, long receiveTime) {
+        long[] best;
+        synchronized (clockSamples) {
+            if (clockSamples.size() == CLOCK_SYNC_WINDOW) {
+                clockSamples.pollFirst();
+            }
+            clockSamples.addLast(new long[]{sync.offset(receiveTime), sync.roundTrip(receiveTime)});
+            best = clockSamples.peekFirst();
+            for (long[] sample : clockSamples) {
+                if (sample[1] < best[1]) best = sample;
+            }
+        }
+        clockOffset = best[0];
+        clockSynced = true;
+    }
+
+    private void startUdp(long token) {
+        udpToken = token;
+        new Thread(() -> {
+            try {
+                udpSocket = new DatagramSocket();
+                udpSocket.connect(InetAddress.getByName(host), port);
+                startUdpReceiveThread(udpSocket);
+
+                // Hellos can be lost too: a quick burst until the server answers, then keepalives
+                byte[] data = new byte[TypingDatagram.MAX_SIZE];
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                TypingDatagram.writeHello(buffer, token);
+                for (int i = 0; connected && !udpSocket.isClosed(); i++) {
+                    udpSocket.send(new DatagramPacket(data, buffer.position()));
+                    Thread.sleep(!udpReady && i < UDP_HELLO_ATTEMPTS
+                            ? UDP_HELLO_INTERVAL_MS : UDP_KEEPALIVE_INTERVAL_MS);
+                }
+            } catch (Exception e) {
+                // no UDP on this network, typing stays on TCP
+                udpReady = false;
+            }
+        }, "UdpHelloThread").start();
+    }
+
+    private void startUdpReceiveThread(DatagramSocket socket) {
+        Thread receiveThread = new Thread(() -> {
+            byte[] data = new byte[TypingDatagram.MAX_SIZE];
+            DatagramPacket packet = new DatagramPacket(data, data.length);
+            byte[] ack = new byte[TypingDatagram.MAX_SIZE];
+            ByteBuffer ackBuffer = ByteBuffer.wrap(ack);
+            while (connected && !socket.isClosed()) {
+                try {
+                    packet.setLength(data.length);
+                    socket.receive(packet);
+                    ByteBuffer buffer = ByteBuffer.wrap(data, 0, packet.getLength());
+                    byte type = buffer.get();
+                    if (type == TypingDatagram.PROBE) {
+                        // proves the server's datagrams reach us, only then does it switch us to UDP
+                        ackBuffer.clear();
+                        TypingDatagram.writeProbeAck(ackBuffer, udpToken, buffer.getLong());
+                        socket.send(new DatagramPacket(ack, ackBuffer.position()));
+                        continue;
+                    }
+                    if (type != TypingDatagram.PLAYER_SNAPSHOT) continue;
+                    int seq = buffer.getInt();
+                    int playerSlot = TypingDatagram.readSlot(buffer);
+                    String text = TypingDatagram.readString(buffer);
+                    // Hand it over like a TCP full-text update, stale ones are dropped by seq
+                    if (messageListener != null) {
+                        messageListener.onMessageReceived(new Message(MessageType.TYPING_UPDATE,
+                                TypingDelta.replace(playerSlot, seq, text)));
+                    }
+                } catch (BufferUnderflowException e) {
+                    // malformed datagram, skip it
+                } catch (IOException e) {
+                    break;
+                }
+            }
+        }, "UdpReceiveThread");
+        receiveThread.start();
+    }
+
+    // Sends a typing snapshot over UDP, returns false if the caller should use TCP instead
+    public boolean sendTypingSnapshot(int seq, String text) {
+        if (!connected || !udpReady) return false;
+
+        byte[] data = new byte[TypingDatagram.MAX_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            TypingDatagram.writeSnapshot(buffer, udpToken, seq, text);
+        } catch (BufferOverflowException e) {
+            return false;
+        }
+        DatagramPacket packet = new DatagramPacket(data, buffer.position());
+        sendExecutor.execute(() -> {
+            try {
+                udpSocket.send(packet);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        return true;
+    }
+
     // Async send using executor (thread-safe, no thread explosion)
     public void sendMessage(Message message) {
         if (!connected) return;
@@ -119,6 +337,9 @@ public class NetworkManager {
 
     public void disconnect() {
         connected = false;
+        if (clockSyncTask != null) clockSyncTask.cancel(false);
+        udpReady = false;
+        if (udpSocket != null) udpSocket.close();
         try {
             if (input != null) input.close();
             if (output != null) output.close();
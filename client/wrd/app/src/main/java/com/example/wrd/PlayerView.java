@@ -1,39 +1,38 @@
 package com.example.wrd;
 import java.io.Serializable;
 
-public class Player implements Serializable {
+// Immutable snapshot of a player as the server sends it, identified by its lobby slot
+public class PlayerView implements Serializable {
     private static final long serialVersionUID = 436;
-    private final String id;
+    private final int slot;
     private final String username;
     private final int score;
     private final int missCount;
     private final boolean eliminated;
     private final String currentTypedText;
+    private final int typingSeq;
     private final String color;
     private final boolean ready;
 
-    public Player(String id, String username) {
-        this.id = id;
-        this.username = username;
-        this.score = 0;
-        this.missCount = 0;
-        this.eliminated = false;
-        this.currentTypedText = "";
-        this.color = generateRandomColor();
-        this.ready = false;
+    private PlayerView(PlayerView other, String currentTypedText, int typingSeq) {
+        this.slot = other.slot;
+        this.username = other.username;
+        this.score = other.score;
+        this.missCount = other.missCount;
+        this.eliminated = other.eliminated;
+        this.currentTypedText = currentTypedText;
+        this.typingSeq = typingSeq;
+        this.color = other.color;
+        this.ready = other.ready;
     }
 
-    private String generateRandomColor() {
-        String[] colors = {
-                "#FF5252", "#E040FB", "#7C4DFF", "#536DFE",
-                "#448AFF", "#40C4FF", "#18FF9F", "#64FF9A",
-                "#69F0AE", "#B2FF59", "#EEFF41", "#FFD740"
-        };
-        return colors[(int) (Math.random() * colors.length)];
+    // Copy with a typed text rebuilt from TYPING_UPDATE edits
+    public PlayerView withTypedText(String text, int seq) {
+        return new PlayerView(this, text, seq);
     }
 
-    // Getters and setters
-    public String getId() { return id; }
+    // Getters
+    public int getSlot() { return slot; }
     public String getUsername() { return username; }
     public int getScore() { return score; }
 
@@ -42,6 +41,7 @@ public class Player implements Serializable {
     public boolean isEliminated() { return eliminated; }
 
     public String getCurrentTypedText() { return currentTypedText; }
+    public int getTypingSeq() { return typingSeq; }
 
     public String getColor() { return color; }
 
@@ -49,7 +49,7 @@ public class Player implements Serializable {
 
     @Override
     public String toString() {
-        return "Player{" +
+        return "PlayerView{" +
                 "username='" + username + '\'' +
                 ", score=" + score +
                 ", eliminated=" + eliminated +
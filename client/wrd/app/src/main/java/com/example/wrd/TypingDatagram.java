@@ -0,0 +1,65 @@
+package com.example.wrd;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Wire format of the optional UDP typing channel. TCP stays authoritative for everything
+// else; datagrams only carry latest-value-wins typing snapshots, so a lost or reordered
+// packet is simply skipped by comparing sequence numbers.
+public final class TypingDatagram {
+    public static final byte HELLO = 1;           // client -> server: token
+    public static final byte SNAPSHOT = 2;        // client -> server: token, seq, text
+    public static final byte PLAYER_SNAPSHOT = 3; // server -> client: seq, playerSlot, text
+    public static final byte PROBE = 4;           // server -> client: nonce, answers every hello
+    public static final byte PROBE_ACK = 5;       // client -> server: token, nonce
+    public static final int MAX_SIZE = 512;
+
+    private TypingDatagram() {}
+
+    public static void writeHello(ByteBuffer buffer, long token) {
+        buffer.put(HELLO);
+        buffer.putLong(token);
+    }
+
+    public static void writeProbe(ByteBuffer buffer, long nonce) {
+        buffer.put(PROBE);
+        buffer.putLong(nonce);
+    }
+
+    public static void writeProbeAck(ByteBuffer buffer, long token, long nonce) {
+        buffer.put(PROBE_ACK);
+        buffer.putLong(token);
+        buffer.putLong(nonce);
+    }
+
+    public static void writeSnapshot(ByteBuffer buffer, long token, int seq, String text) {
+        buffer.put(SNAPSHOT);
+        buffer.putLong(token);
+        buffer.putInt(seq);
+        writeString(buffer, text);
+    }
+
+    public static void writePlayerSnapshot(ByteBuffer buffer, int playerSlot, int seq, String text) {
+        buffer.put(PLAYER_SNAPSHOT);
+        buffer.putInt(seq);
+        buffer.putShort((short) playerSlot);
+        writeString(buffer, text);
+    }
+
+    public static int readSlot(ByteBuffer buffer) {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    public static String readString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+}
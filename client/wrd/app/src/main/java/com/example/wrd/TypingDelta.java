@@ -0,0 +1,89 @@
+package com.example.wrd;
+
+import java.io.Serializable;
+
+// One edit of a player's typed text. Clients send these instead of the whole input field
+// and the server re-sequences the accepted ones per player before fanning them out.
+public class TypingDelta implements Serializable {
+    private static final long serialVersionUID = 436;
+
+    public enum Op {
+        APPEND,
+        DELETE,
+        EDIT, // drop deleteCount trailing chars, then append text: a fix behind the cursor
+        REPLACE // full text, also used to resync after a sequence gap
+    }
+
+    private final int playerSlot;
+    private final int seq;
+    private final Op op;
+    private final int deleteCount;
+    private final String text;
+
+    private TypingDelta(int playerSlot, int seq, Op op, int deleteCount, String text) {
+        this.playerSlot = playerSlot;
+        this.seq = seq;
+        this.op = op;
+        this.deleteCount = deleteCount;
+        this.text = text;
+    }
+
+    public static TypingDelta replace(int playerSlot, int seq, String text) {
+        return new TypingDelta(playerSlot, seq, Op.REPLACE, 0, text);
+    }
+
+    // Smallest edit turning oldText into newText, or null if they are equal
+    public static TypingDelta between(int playerSlot, int seq, String oldText, String newText) {
+        int common = 0;
+        int limit = Math.min(oldText.length(), newText.length());
+        while (common < limit && oldText.charAt(common) == newText.charAt(common)) {
+            common++;
+        }
+        int removed = oldText.length() - common;
+        String added = newText.substring(common);
+
+        if (removed == 0 && added.isEmpty()) {
+            return null;
+        } else if (removed == 0) {
+            return new TypingDelta(playerSlot, seq, Op.APPEND, 0, added);
+        } else if (added.isEmpty()) {
+            return new TypingDelta(playerSlot, seq, Op.DELETE, removed, null);
+        } else if (common > 0) {
+            return new TypingDelta(playerSlot, seq, Op.EDIT, removed, added);
+        }
+        return replace(playerSlot, seq, newText);
+    }
+
+    // Returns the edited text, or null if the edit does not fit the given text
+    public String applyTo(String current) {
+        switch (op) {
+            case APPEND:
+                return current + text;
+            case DELETE:
+                return deleteCount <= current.length() ? current.substring(0, current.length() - deleteCount) : null;
+            case EDIT:
+                return deleteCount <= current.length() ? current.substring(0, current.length() - deleteCount) + text : null;
+            case REPLACE:
+                return text;
+            default:
+                return null;
+        }
+    }
+
+    public int getPlayerSlot() { return playerSlot; }
+    public int getSeq() { return seq; }
+    public Op getOp() { return op; }
+    public int getDeleteCount() { return deleteCount; }
+    public String getText() { return text; }
+
+    @Override
+    public String toString() {
+        return "TypingDelta{" +
+                "playerSlot=" + playerSlot +
+                ", seq=" + seq +
+                ", op=" + op +
+                (op == Op.DELETE || op == Op.EDIT ? ", deleteCount=" + deleteCount : "") +
+                (op == Op.DELETE ? "" : ", text='" + text + '\'') +
+                '}';
+    }
+}
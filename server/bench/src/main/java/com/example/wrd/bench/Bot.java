@@ -0,0 +1,428 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// One headless player speaking the same TCP protocol as the app's NetworkManager: joins,
+// picks a lobby with free seats, goes ready, types the round's words key by key and submits.
+// A reader thread per bot handles frames; keystrokes and retries run on the shared scheduler.
+// Game state is guarded by the bot's monitor, socket writes by outLock.
+class Bot {
+    private static final int CONNECT_TIMEOUT = 5000; // ms
+    private static final int READER_STACK = 256 * 1024; // bytes, thousands of reader threads
+    private static final int CLOCK_PROBES = 5;
+    private static final int CLOCK_PROBE_INTERVAL = 200; // ms
+    private static final int LOBBY_PAGE_SIZE = 20;
+
+    private enum Phase { LOOKING, JOINING, IN_LOBBY, PLAYING, GAME_OVER }
+
+    private final int index;
+    private final String username;
+    private final LoadConfig config;
+    private final LoadStats stats;
+    private final ScheduledExecutorService scheduler;
+
+    private Socket socket;
+    private ObjectOutputStream out;
+    private ObjectInputStream in;
+    private final Object outLock = new Object();
+    private volatile boolean running;
+
+    // clock offset to the server, from the probe with the lowest RTT
+    private long clockOffset;
+    private long bestRoundTrip = Long.MAX_VALUE;
+    private boolean clockSynced;
+
+    private Phase phase = Phase.LOOKING;
+    private String lobbyId;
+    private boolean ready;
+    private boolean eliminated;
+
+    // current round
+    private WordRound round;
+    private String target;
+    private int targetIndex = -1;
+    private String typed = "";
+    private boolean typoPending;
+    private int typingSeq;
+    private String lastSentTyping = "";
+    private int typingGeneration; // bumped to cancel scheduled keystrokes
+    private String submittedWord;
+    private long submittedNanos;
+    private boolean acknowledged;
+    private final Set<Integer> seenClaims = new HashSet<>();
+
+    Bot(int index, LoadConfig config, LoadStats stats, ScheduledExecutorService scheduler) {
+        this.index = index;
+        this.username = "bot" + index;
+        this.config = config;
+        this.stats = stats;
+        this.scheduler = scheduler;
+    }
+
+    // Blocks until the server accepted or refused the login, true if the bot is now playing
+    boolean connect() {
+        long start = System.nanoTime();
+        try {
+            socket = new Socket();
+            socket.connect(new InetSocketAddress(config.host(), config.port()), CONNECT_TIMEOUT);
+            socket.setTcpNoDelay(true);
+            out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.flush();
+            in = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+            running = true;
+            send(new Message(MessageType.JOIN_SERVER, username));
+            while (true) {
+                Message message = (Message) in.readObject();
+                switch (message.getType()) {
+                    case JOIN_SERVER_RESPONSE:
+                        stats.join.record(System.nanoTime() - start);
+                        break;
+                    case JOIN_SERVER_FAILED:
+                        stats.joinFailed.increment();
+                        close();
+                        return false;
+                    case SERVER_BUSY:
+                        stats.busy.increment();
+                        close();
+                        return false;
+                    case PING:
+                        send(new Message(MessageType.PONG, message.getData()));
+                        continue;
+                    default:
+                        continue;
+                }
+                break;
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            stats.connectFailed.increment();
+            close();
+            return false;
+        }
+
+        stats.opened();
+        new Thread(null, this::readLoop, "bot-" + index, READER_STACK).start();
+        for (int i = 0; i < CLOCK_PROBES; i++) {
+            scheduler.schedule(this::sendClockProbe, (long) i * CLOCK_PROBE_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+        lookForLobby();
+        return true;
+    }
+
+    void close() {
+        boolean wasRunning = running;
+        running = false;
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException ignored) {
+        }
+        if (wasRunning && in != null) {
+            stats.closed();
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (running) {
+                Message message = (Message) in.readObject();
+                stats.messagesIn.increment();
+                handle(message);
+            }
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            if (running) {
+                stats.dropped.increment();
+                close();
+            }
+        }
+    }
+
+    private void handle(Message message) {
+        switch (message.getType()) {
+            case PING:
+                send(new Message(MessageType.PONG, message.getData()));
+                break;
+            case TIME_SYNC:
+                onClockSample((TimeSync) message.getData(), localMillis());
+                break;
+            case LOBBY_PAGE:
+                onLobbyPage((LobbyPage) message.getData());
+                break;
+            case JOIN_LOBBY_SUCCESS:
+                onJoinedLobby((String) message.getData());
+                break;
+            case JOIN_LOBBY_FAILED:
+                retryLobbySearch(200 + ThreadLocalRandom.current().nextInt(500));
+                break;
+            case REQUEST_THROTTLED:
+                if (message.getData() == MessageType.GET_LOBBIES) {
+                    retryLobbySearch(200 + ThreadLocalRandom.current().nextInt(500));
+                }
+                break;
+            case TYPING_RESYNC:
+                resendTyping();
+                break;
+            case PLAYER_LIST_UPDATE:
+                onPlayerList((PlayerView[]) message.getData());
+                break;
+            case NEW_WORD:
+                onNewWord((WordRound) message.getData());
+                break;
+            case WORD_CLAIMED:
+                onWordClaimed((WordRound) message.getData());
+                break;
+            case PLAYER_ELIMINATED:
+                onEliminated((PlayerView) message.getData());
+                break;
+            case GAME_ENDED:
+                onGameEnded();
+                break;
+            case LEAVE_LOBBY_SUCCESS:
+                onLeftLobby();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void send(Message message) {
+        synchronized (outLock) {
+            try {
+                out.writeObject(message);
+                out.flush();
+                out.reset();
+                stats.messagesOut.increment();
+            } catch (IOException e) {
+                if (running) {
+                    stats.dropped.increment();
+                    close();
+                }
+            }
+        }
+    }
+
+    private static long localMillis() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    private void sendClockProbe() {
+        if (running) {
+            send(new Message(MessageType.TIME_SYNC, new TimeSync(localMillis())));
+        }
+    }
+
+    private synchronized void onClockSample(TimeSync sync, long receivedMillis) {
+        long roundTrip = sync.roundTrip(receivedMillis);
+        if (roundTrip < bestRoundTrip) {
+            bestRoundTrip = roundTrip;
+            clockOffset = sync.offset(receivedMillis);
+            clockSynced = true;
+        }
+    }
+
+    private synchronized void lookForLobby() {
+        if (!running) return;
+        phase = Phase.LOOKING;
+        send(new Message(MessageType.GET_LOBBIES, new LobbyQuery(false, 1, null, null, LOBBY_PAGE_SIZE)));
+    }
+
+    private void retryLobbySearch(long delayMs) {
+        scheduler.schedule(this::lookForLobby, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void onLobbyPage(LobbyPage page) {
+        if (phase != Phase.LOOKING) return;
+        if (page.lobbies().length == 0) {
+            retryLobbySearch(1000);
+            return;
+        }
+        LobbyInfo pick = page.lobbies()[ThreadLocalRandom.current().nextInt(page.lobbies().length)];
+        phase = Phase.JOINING;
+        send(new Message(MessageType.JOIN_LOBBY, pick.id()));
+    }
+
+    private synchronized void onJoinedLobby(String joinedId) {
+        phase = Phase.IN_LOBBY;
+        lobbyId = joinedId;
+        ready = false;
+        eliminated = false;
+        typed = "";
+        lastSentTyping = "";
+        typingSeq = 0; // the server restarts the sequence on every join
+        // not enough company in time: go ready anyway
+        scheduler.schedule(this::readyIfWaiting, config.readyAfterMs(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void onPlayerList(PlayerView[] players) {
+        if (phase == Phase.IN_LOBBY && !ready && players.length >= config.fillTo()) {
+            goReady();
+        }
+    }
+
+    private synchronized void readyIfWaiting() {
+        if (running && phase == Phase.IN_LOBBY && !ready) {
+            goReady();
+        }
+    }
+
+    private void goReady() {
+        ready = true;
+        send(new Message(MessageType.PLAYER_READY, null));
+    }
+
+    private synchronized void onNewWord(WordRound newRound) {
+        long nowMillis = localMillis();
+        stats.rounds.increment();
+        if (clockSynced && newRound.getDeadlineServerTime() > 0) {
+            long roundStart = newRound.getDeadlineServerTime() - newRound.getTimeoutMs();
+            stats.newWord.record(TimeUnit.MILLISECONDS.toNanos(nowMillis + clockOffset - roundStart));
+        }
+        phase = Phase.PLAYING;
+        round = newRound;
+        submittedWord = null;
+        acknowledged = false;
+        seenClaims.clear();
+        typingGeneration++;
+        if (!typed.isEmpty()) {
+            typed = "";
+            sendTyping();
+        }
+        if (!eliminated) {
+            pickTarget();
+        }
+    }
+
+    // Targets a random word nobody has claimed yet and starts typing it
+    private void pickTarget() {
+        List<Integer> open = new ArrayList<>();
+        for (int i = 0; i < round.getWords().size(); i++) {
+            if (!round.isWordClaimed(i)) {
+                open.add(i);
+            }
+        }
+        typingGeneration++;
+        if (open.isEmpty()) {
+            target = null;
+            targetIndex = -1;
+            return;
+        }
+        targetIndex = open.get(ThreadLocalRandom.current().nextInt(open.size()));
+        target = round.getWords().get(targetIndex);
+        typoPending = false;
+        if (!typed.isEmpty()) {
+            typed = "";
+            sendTyping();
+        }
+        scheduleKeystroke(typingGeneration);
+    }
+
+    private void scheduleKeystroke(int generation) {
+        double mean = 60_000.0 / config.charsPerMinute();
+        long delay = Math.max(15, (long) (mean + ThreadLocalRandom.current().nextGaussian() * mean * 0.3));
+        scheduler.schedule(() -> keystroke(generation), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void keystroke(int generation) {
+        if (!running || generation != typingGeneration || phase != Phase.PLAYING || target == null) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (typoPending) {
+            typed = typed.substring(0, typed.length() - 1);
+            typoPending = false;
+        } else if (random.nextDouble() < config.typoRate()) {
+            typed = typed + (char) ('a' + random.nextInt(26));
+            typoPending = true;
+        } else {
+            typed = target.substring(0, typed.length() + 1);
+        }
+        sendTyping();
+        if (!typoPending && typed.length() == target.length()) {
+            submit();
+        } else {
+            scheduleKeystroke(generation);
+        }
+    }
+
+    private void sendTyping() {
+        TypingDelta delta = TypingDelta.between(0, typingSeq + 1, lastSentTyping, typed);
+        if (delta != null) {
+            typingSeq++;
+            lastSentTyping = typed;
+            send(new Message(MessageType.TYPING_UPDATE, delta));
+        }
+    }
+
+    // The server lost an edit: send the whole field
+    private synchronized void resendTyping() {
+        typingSeq++;
+        lastSentTyping = typed;
+        send(new Message(MessageType.TYPING_UPDATE, TypingDelta.replace(0, typingSeq, typed)));
+    }
+
+    private void submit() {
+        String answer = target;
+        if (ThreadLocalRandom.current().nextDouble() >= config.accuracy()) {
+            // a misspelled answer, the last letter is off
+            char last = answer.charAt(answer.length() - 1);
+            answer = answer.substring(0, answer.length() - 1) + (char) (last == 'z' ? 'a' : last + 1);
+        }
+        submittedWord = answer;
+        submittedNanos = System.nanoTime();
+        stats.submitted.increment();
+        send(new Message(MessageType.SUBMIT_ANSWER, answer));
+        target = null;
+    }
+
+    private synchronized void onWordClaimed(WordRound claimed) {
+        long now = System.nanoTime();
+        for (int i = 0; i < claimed.getWords().size(); i++) {
+            String claimer = claimed.getClaimerAt(i);
+            if (claimer == null || !seenClaims.add(i)) {
+                continue;
+            }
+            stats.claimReceived(lobbyId + '/' + claimed.getDeadlineServerTime() + '/' + i, now);
+            if (claimer.equals(username) && !acknowledged && claimed.getWords().get(i).equals(submittedWord)) {
+                acknowledged = true;
+                stats.claimAck.record(now - submittedNanos);
+                stats.claimsWon.increment();
+            }
+        }
+        round = claimed;
+        if (target != null && targetIndex >= 0 && claimed.isWordClaimed(targetIndex)) {
+            pickTarget(); // someone was faster, try another word
+        }
+    }
+
+    private synchronized void onEliminated(PlayerView player) {
+        if (username.equals(player.username())) {
+            eliminated = true;
+            target = null;
+            typingGeneration++;
+        }
+    }
+
+    // The lobby sends everyone back to the list shortly after, wait for that
+    private synchronized void onGameEnded() {
+        if (phase == Phase.LOOKING || phase == Phase.JOINING) return;
+        phase = Phase.GAME_OVER;
+        target = null;
+        typingGeneration++;
+    }
+
+    private synchronized void onLeftLobby() {
+        if (phase == Phase.LOOKING || phase == Phase.JOINING) return;
+        phase = Phase.LOOKING;
+        lobbyId = null;
+        retryLobbySearch(500 + ThreadLocalRandom.current().nextInt(1000));
+    }
+}
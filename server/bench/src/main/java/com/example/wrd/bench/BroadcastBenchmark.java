@@ -0,0 +1,45 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Lobby fan-out to in-memory connections. Run with -t to see broadcasts from several
+// threads (game thread, typing updates, joins) compete for playerMutex.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BroadcastBenchmark {
+
+    @Param({"2", "8", "50", "500"})
+    public int handlers;
+
+    private Lobby lobby;
+    private Message message;
+
+    @Setup
+    public void setup() {
+        lobby = new Lobby("bench", "Bench", new LobbyDirectory(), handlers);
+        for (int i = 0; i < handlers; i++) {
+            if (!lobby.addPlayer(new Player("player" + i, "player" + i), new SinkHandler())) {
+                throw new IllegalStateException("Lobby refused player " + i);
+            }
+        }
+        message = Payload.SCORE_UPDATE.message();
+    }
+
+    @Benchmark
+    public void broadcastMessage() {
+        lobby.broadcastMessage(message);
+    }
+
+    // Snapshot of every player's view under playerMutex plus the fan-out
+    @Benchmark
+    public void broadcastPlayerList() {
+        lobby.broadcastPlayerList();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// SUBMIT_ANSWER from every player of a lobby at once, all contending for the game thread's
+// monitor. Each iteration plays a fresh game and measures inside its first round, so the
+// 3 s countdown is paid in setup. Mixes the round's words with misses; after a player's
+// first valid claim the rest take the early rejections, as repeated submits do in a game.
+//   java -jar target/benchmarks.jar ClaimBenchmark -t 8
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ClaimBenchmark {
+    private static final long ROUND_START_TIMEOUT = 10_000; // ms
+    private static final long RTT = TimeUnit.MILLISECONDS.toNanos(40);
+
+    private Lobby lobby;
+    private Player[] players;
+    private SinkHandler observer;
+    private String[] answers;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void startRound(BenchmarkParams params) throws InterruptedException {
+        int count = Math.max(2, params.getThreads());
+        lobby = new Lobby("bench", "Bench", new LobbyDirectory(), count);
+        players = new Player[count];
+        SinkHandler[] handlers = new SinkHandler[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = new Player("player" + i, "player" + i);
+            handlers[i] = new SinkHandler();
+            lobby.addPlayer(players[i], handlers[i]);
+        }
+        observer = handlers[0];
+        for (Player player : players) {
+            lobby.setPlayerReady(player);
+        }
+
+        long deadline = System.currentTimeMillis() + ROUND_START_TIMEOUT;
+        while (observer.getLastRound() == null) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Round did not start");
+            }
+            Thread.sleep(10);
+        }
+        List<String> mix = new ArrayList<>();
+        for (String word : observer.getLastRound().getWords()) {
+            mix.add(word);
+            mix.add(word + "x");
+            mix.add(word.substring(0, word.length() - 1));
+        }
+        answers = mix.toArray(new String[0]);
+        nextSlot.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopGame() {
+        lobby.stopGame();
+    }
+
+    @State(Scope.Thread)
+    public static class Submitter {
+        Player player;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void takeSeat(ClaimBenchmark bench) {
+            player = bench.players[bench.nextSlot.getAndIncrement() % bench.players.length];
+            next = 0;
+        }
+    }
+
+    @Benchmark
+    public void submitAnswer(Submitter submitter) {
+        String answer = answers[submitter.next++ % answers.length];
+        lobby.submitAnswer(submitter.player, answer, System.nanoTime(), RTT);
+    }
+}
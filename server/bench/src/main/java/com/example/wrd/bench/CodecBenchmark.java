@@ -0,0 +1,81 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.Message;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Encode and decode throughput of every bulk payload per codec, on a warmed-up connection.
+// The wireBytes secondary result is bytes per ms, divided by the score it is the frame size
+// (CodecSizes prints the sizes directly). Allocation per message comes from -prof gc:
+//   java -jar target/benchmarks.jar CodecBenchmark -prof gc
+//   java -jar target/benchmarks.jar CodecBenchmark -p codec=java,<other> -p payload=NEW_WORD
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    @Param({Codecs.JAVA})
+    public String codec;
+
+    @Param
+    public Payload payload;
+
+    private Message message;
+    private ByteArrayOutputStream encodeBuffer;
+    private MessageCodec.Encoder encoder;
+    private MessageCodec.Decoder decoder;
+    private int frameBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class WireBytes {
+        public long wireBytes;
+
+        @Setup(Level.Iteration)
+        public void clear() {
+            wireBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        MessageCodec messageCodec = Codecs.byName(codec);
+        message = payload.message();
+
+        encodeBuffer = new ByteArrayOutputStream(64 * 1024);
+        encoder = messageCodec.newEncoder(encodeBuffer);
+        byte[] header = encodeBuffer.toByteArray();
+        encodeBuffer.reset();
+        encoder.write(message);
+        byte[] frame = encodeBuffer.toByteArray();
+        frameBytes = frame.length;
+
+        decoder = messageCodec.newDecoder(new ReplayInputStream(header, frame));
+        for (int i = 0; i < 3; i++) {
+            Message decoded = decoder.read();
+            if (decoded.getType() != message.getType()) {
+                throw new IllegalStateException(codec + " decoded " + decoded.getType() + " for " + payload);
+            }
+        }
+    }
+
+    @Benchmark
+    public int encode(WireBytes bytes) throws IOException {
+        encodeBuffer.reset();
+        encoder.write(message);
+        bytes.wireBytes += encodeBuffer.size();
+        return encodeBuffer.size();
+    }
+
+    @Benchmark
+    public Message decode(WireBytes bytes) throws IOException {
+        bytes.wireBytes += frameBytes;
+        return decoder.read();
+    }
+}
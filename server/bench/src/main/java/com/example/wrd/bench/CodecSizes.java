@@ -0,0 +1,36 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.Message;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+// Frame size of every payload per codec, without running JMH:
+//   java -cp target/benchmarks.jar com.example.wrd.bench.CodecSizes [codec...]
+public class CodecSizes {
+    public static void main(String[] args) throws IOException {
+        String[] codecs = args.length > 0 ? args : new String[] {Codecs.JAVA};
+        System.out.printf("%-20s", "payload");
+        for (String codec : codecs) {
+            System.out.printf("%12s", codec);
+        }
+        System.out.println();
+        for (Payload payload : Payload.values()) {
+            System.out.printf("%-20s", payload);
+            for (String codec : codecs) {
+                System.out.printf("%12d", frameBytes(Codecs.byName(codec), payload.message()));
+            }
+            System.out.println();
+        }
+    }
+
+    // Size of the second frame on a connection, the first one may carry one-off headers
+    static int frameBytes(MessageCodec codec, Message message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MessageCodec.Encoder encoder = codec.newEncoder(out);
+        encoder.write(message);
+        out.reset();
+        encoder.write(message);
+        return out.size();
+    }
+}
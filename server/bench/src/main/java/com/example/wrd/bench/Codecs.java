@@ -0,0 +1,17 @@
+package com.example.wrd.bench;
+
+// Codec names accepted by -p codec=...
+public final class Codecs {
+    public static final String JAVA = "java";
+
+    private Codecs() {}
+
+    public static MessageCodec byName(String name) {
+        switch (name) {
+            case JAVA:
+                return new JavaSerializationCodec();
+            default:
+                throw new IllegalArgumentException("Unknown codec " + name);
+        }
+    }
+}
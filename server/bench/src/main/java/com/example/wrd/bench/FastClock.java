@@ -0,0 +1,71 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.GameClock;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Wall-clock GameClock running speedup times faster than real time, with real threads for
+// games and timers. Stress runs get many full games per second while every lobby method
+// still races against a live game thread.
+public class FastClock implements GameClock {
+    private final long origin = System.nanoTime();
+    private final int speedup;
+
+    public FastClock(int speedup) {
+        this.speedup = speedup;
+    }
+
+    @Override
+    public long nanoTime() {
+        return (System.nanoTime() - origin) * speedup;
+    }
+
+    @Override
+    public long toMillis(long nanoTime) {
+        return nanoTime / 1_000_000;
+    }
+
+    @Override
+    public Thread runSteps(String name, LongSupplier step) {
+        Thread thread = new Thread(() -> {
+            try {
+                long next = step.getAsLong();
+                while (next != DONE) {
+                    long remaining;
+                    while ((remaining = next - nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.sleep(Math.max(1, remaining / speedup));
+                    }
+                    next = step.getAsLong();
+                }
+            } catch (InterruptedException e) {
+                // the lobby stopped the game
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    @Override
+    public Timer newTimer(String name) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false); // same contract as SYSTEM
+        return new Timer() {
+            @Override
+            public void schedule(Runnable task, long delay, TimeUnit unit) {
+                executor.schedule(task, Math.max(1, unit.toNanos(delay) / speedup), TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void shutdown() {
+                executor.shutdown();
+            }
+        };
+    }
+}
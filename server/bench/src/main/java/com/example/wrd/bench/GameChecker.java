@@ -0,0 +1,275 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Invariants of one simulated game, checked against every broadcast as the lobby sends it.
+// Timing rules are exact because the simulation runs on virtual time. A violation throws
+// IllegalStateException naming the virtual time it happened at.
+class GameChecker {
+    // Lobby's rules in the units checked here
+    static final int MAX_PLAYERS = Lobby.MAX_PLAYERS;
+    static final int MAX_ROUNDS = Lobby.MAX_ROUNDS;
+    static final int MAX_MISSES = Lobby.MAX_MISSES;
+    static final int COUNTDOWN_TICKS = Lobby.GAME_START_COUNTDOWN;
+    static final long COUNTDOWN = TimeUnit.SECONDS.toNanos(Lobby.GAME_START_COUNTDOWN);
+    static final long WORD_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(Lobby.WORD_TIMEOUT);
+    static final long REST_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(Lobby.REST_TIMEOUT);
+    static final long GAME_END_DELAY = TimeUnit.MILLISECONDS.toNanos(Lobby.GAME_END_DELAY);
+    static final int MAX_POINTS = Lobby.WORD_TIMEOUT / Lobby.MS_PER_POINT; // a claim at the very start of a round
+
+    private enum State { WAITING, COUNTDOWN, ROUND, ROUND_OVER, REST, ENDED, KICKED }
+
+    private final VirtualClock clock;
+    private final boolean trace;
+    private State state = State.WAITING;
+    private long startNanos;
+    private int countdownTicks;
+    private long gameEndedNanos;
+    private IllegalStateException violation;
+
+    private Set<String> seated = new LinkedHashSet<>();
+    private final Set<String> eliminated = new HashSet<>();
+    private final Map<String, Integer> misses = new HashMap<>();
+    private final Map<String, Integer> scores = new HashMap<>();
+
+    // current round
+    private int rounds;
+    private long deadlineNanos;
+    private String[] claimers;
+    private final Set<String> roundWinners = new HashSet<>();
+    private final Set<String> pendingEliminations = new HashSet<>();
+    private final Map<String, Map<String, Long>> submissions = new HashMap<>(); // user, word, first arrival
+
+    GameChecker(VirtualClock clock, boolean trace) {
+        this.clock = clock;
+        this.trace = trace;
+    }
+
+    int getRounds() {
+        return rounds;
+    }
+
+    // The last player went ready, the lobby starts its game at this time
+    void gameStarting() {
+        check(state == State.WAITING, "game started twice");
+        state = State.COUNTDOWN;
+        startNanos = clock.nanoTime();
+        scores.clear();
+        misses.clear();
+        eliminated.clear();
+    }
+
+    void submitted(String username, String word) {
+        if (state == State.ROUND) {
+            submissions.computeIfAbsent(username, u -> new HashMap<>()).putIfAbsent(word, clock.nanoTime());
+        }
+        if (trace) {
+            System.out.printf("[%9.3fs]   %s submits '%s'%n", seconds(clock.nanoTime()), username, word);
+        }
+    }
+
+    void onBroadcast(Message message) {
+        long now = clock.nanoTime();
+        if (trace) {
+            System.out.printf("[%9.3fs] %s %s%n", seconds(now), message.getType(), describe(message.getData()));
+        }
+        switch (message.getType()) {
+            case PLAYER_LIST_UPDATE:
+                Set<String> names = new LinkedHashSet<>();
+                for (PlayerView view : (PlayerView[]) message.getData()) {
+                    names.add(view.username());
+                }
+                seated = names;
+                break;
+            case GAME_STARTING:
+                check(state == State.COUNTDOWN, "countdown outside of the countdown");
+                check((Integer) message.getData() == COUNTDOWN_TICKS - countdownTicks, "countdown out of order");
+                check(now == startNanos + TimeUnit.SECONDS.toNanos(countdownTicks), "countdown tick off schedule");
+                countdownTicks++;
+                break;
+            case GAME_STARTED:
+                check(state == State.COUNTDOWN && countdownTicks == COUNTDOWN_TICKS, "game started before the countdown ended");
+                check(now == startNanos + COUNTDOWN, "game started off schedule");
+                break;
+            case NEW_WORD:
+                onNewWord((WordRound) message.getData(), now);
+                break;
+            case SCORE_UPDATE:
+                onScore((PlayerView) message.getData(), now);
+                break;
+            case WORD_CLAIMED:
+                onWordClaimed((WordRound) message.getData());
+                break;
+            case PLAYER_ELIMINATED:
+                endRound(now);
+                String name = ((PlayerView) message.getData()).username();
+                check(pendingEliminations.remove(name), name + " eliminated without " + MAX_MISSES + " misses in a row");
+                eliminated.add(name);
+                break;
+            case REST_PERIOD:
+                endRound(now);
+                check(pendingEliminations.isEmpty(), "not eliminated: " + pendingEliminations);
+                check(rounds < MAX_ROUNDS && activePlayers().size() >= 2, "rest period when the game should be over");
+                state = State.REST;
+                break;
+            case GAME_ENDED:
+                endRound(now);
+                check(pendingEliminations.isEmpty(), "not eliminated: " + pendingEliminations);
+                check(rounds == MAX_ROUNDS || activePlayers().size() <= 1,
+                        "game ended after round " + rounds + " with " + activePlayers().size() + " active players");
+                checkWinner((PlayerView) message.getData());
+                state = State.ENDED;
+                gameEndedNanos = now;
+                break;
+            case LEAVE_LOBBY_SUCCESS:
+                check(state == State.ENDED, "players kicked while " + state);
+                check(now == gameEndedNanos + GAME_END_DELAY, "kick off schedule");
+                state = State.KICKED;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onNewWord(WordRound round, long now) {
+        check(state == State.COUNTDOWN || state == State.REST, "round started while " + state);
+        rounds++;
+        check(rounds <= MAX_ROUNDS, "more than " + MAX_ROUNDS + " rounds");
+        long expectedStart = startNanos + COUNTDOWN + (rounds - 1) * (WORD_TIMEOUT + REST_TIMEOUT);
+        check(now == expectedStart, "round " + rounds + " started off schedule");
+        deadlineNanos = now + WORD_TIMEOUT;
+        check(round.getDeadlineServerTime() == clock.toMillis(deadlineNanos), "wrong deadline on the wire");
+        int expectedWords = Math.max(1, activePlayers().size() - 1);
+        check(round.getWords().size() == expectedWords,
+                round.getWords().size() + " words for " + activePlayers().size() + " active players");
+        claimers = new String[round.getWords().size()];
+        roundWinners.clear();
+        submissions.clear();
+        state = State.ROUND;
+    }
+
+    private void onScore(PlayerView view, long now) {
+        check(state == State.ROUND, "score update while " + state);
+        check(now <= deadlineNanos, "claim awarded after the deadline");
+        String name = view.username();
+        check(!eliminated.contains(name), "eliminated player " + name + " scored");
+        check(roundWinners.add(name), name + " scored twice in one round");
+        int delta = view.score() - scores.getOrDefault(name, 0);
+        check(delta >= 0 && delta <= MAX_POINTS, name + " scored " + delta + " points for one word");
+        scores.put(name, view.score());
+    }
+
+    private void onWordClaimed(WordRound round) {
+        check(state == State.ROUND, "word claimed while " + state);
+        int fresh = 0;
+        for (int i = 0; i < claimers.length; i++) {
+            String claimer = round.getClaimerAt(i);
+            if (claimers[i] != null) {
+                check(claimers[i].equals(claimer), "word " + i + " changed hands");
+            } else if (claimer != null) {
+                fresh++;
+                check(roundWinners.contains(claimer), claimer + " claimed without a score update");
+                Long arrival = submissions.getOrDefault(claimer, Map.of()).get(round.getWords().get(i));
+                check(arrival != null, claimer + " got '" + round.getWords().get(i) + "' without submitting it");
+                check(arrival <= deadlineNanos, claimer + " got a word submitted after the deadline");
+                claimers[i] = claimer;
+            }
+        }
+        check(fresh == 1, "WORD_CLAIMED with " + fresh + " new claims");
+    }
+
+    // First message after the deadline: settle misses and work out who has to go
+    private void endRound(long now) {
+        if (state == State.ROUND_OVER) {
+            return;
+        }
+        check(state == State.ROUND, "round ended while " + state);
+        check(now == deadlineNanos, "round ended off schedule");
+        for (String name : activePlayers()) {
+            int count = roundWinners.contains(name) ? 0 : misses.getOrDefault(name, 0) + 1;
+            misses.put(name, count);
+            if (count >= MAX_MISSES) {
+                pendingEliminations.add(name);
+            }
+        }
+        state = State.ROUND_OVER;
+    }
+
+    private void checkWinner(PlayerView winner) {
+        List<String> active = activePlayers();
+        Collection<String> candidates = active.isEmpty() ? seated : active;
+        if (candidates.isEmpty()) {
+            check(winner == null, "winner in an empty lobby");
+            return;
+        }
+        check(winner != null && candidates.contains(winner.username()), "winner " + describe(winner) +
+                " is not one of " + candidates);
+        if (active.size() != 1) {
+            int best = candidates.stream().mapToInt(name -> scores.getOrDefault(name, 0)).max().orElse(0);
+            check(winner.score() == best, "winner has " + winner.score() + " points, best was " + best);
+        }
+    }
+
+    // After the simulation ran out of events
+    void finish(Lobby lobby) {
+        check(state == State.KICKED, "simulation ended while " + state);
+        check(lobby.getPlayerCount() == 0 && !lobby.isGameActive(), "lobby not cleared after the kick");
+        check(lobby.status().phase() == Lobby.Phase.WAITING, "lobby in " + lobby.status().phase() + " after the kick");
+        for (ClaimDecision decision : lobby.getClaimAudit()) {
+            ClaimDecision.Candidate best = null;
+            for (ClaimDecision.Candidate candidate : decision.candidates()) {
+                check(candidate.receivedMs() <= TimeUnit.NANOSECONDS.toMillis(WORD_TIMEOUT),
+                        "claim received after the deadline competed: " + decision);
+                if (best == null || candidate.adjustedMs() < best.adjustedMs() ||
+                        (candidate.adjustedMs() == best.adjustedMs() && candidate.receivedMs() < best.receivedMs())) {
+                    best = candidate;
+                }
+            }
+            check(best != null && best.username().equals(decision.winner()), "arbitration picked the wrong claim: " + decision);
+        }
+    }
+
+    private List<String> activePlayers() {
+        List<String> active = new ArrayList<>();
+        for (String name : seated) {
+            if (!eliminated.contains(name)) {
+                active.add(name);
+            }
+        }
+        return active;
+    }
+
+    // Lobby.broadcastMessage catches and prints what a connection throws, so the first
+    // violation is also kept for run() to report
+    private void check(boolean condition, String message) {
+        if (!condition) {
+            IllegalStateException e = new IllegalStateException(
+                    String.format("at %.3fs: %s", seconds(clock.nanoTime()), message));
+            if (violation == null) {
+                violation = e;
+            }
+            throw e;
+        }
+    }
+
+    IllegalStateException getViolation() {
+        return violation;
+    }
+
+    private double seconds(long nanos) {
+        return (nanos - startNanos) / 1e9;
+    }
+
+    private static String describe(Object data) {
+        if (data instanceof PlayerView[] views) {
+            return Arrays.toString(views);
+        }
+        if (data instanceof WordRound round) {
+            return round.getWords() + " claimed by " + round.getClaimedBy();
+        }
+        return data == null ? "" : data.toString();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Full games on virtual time: a real Lobby driven by a VirtualClock, seeded simulated players
+// and a GameChecker watching every broadcast. A seed fixes the whole scenario (lobby size,
+// latencies, reaction times, accuracy, players aiming at the 13 s boundary, players leaving
+// mid-game), so any failing seed replays exactly.
+//   java -cp target/benchmarks.jar -Dsim.games=10000 com.example.wrd.bench.GameSimulation
+//   java -cp target/benchmarks.jar -Dsim.replay=4711 com.example.wrd.bench.GameSimulation
+public class GameSimulation {
+    private static final long START = TimeUnit.SECONDS.toNanos(1000); // whole ms, so deadlines are exact on the wire
+    private static final int WORDS_PER_LEVEL = 200;
+    private static final int MAX_FAILURES_SHOWN = 20;
+    private static final long[] BOUNDARY_OFFSETS = {-TimeUnit.MILLISECONDS.toNanos(1), -1, 0, 1};
+
+    final VirtualClock clock = new VirtualClock(START);
+    final Lobby lobby;
+    private final GameChecker checker;
+    private final List<SimPlayer> players = new ArrayList<>();
+    private boolean started;
+    private Message lastBroadcast;
+    private long messages;
+    private long typingUpdates;
+
+    public GameSimulation(long seed, List<List<String>> dictionary, boolean trace) {
+        Random random = new Random(seed);
+        checker = new GameChecker(clock, trace);
+        int count = 2 + random.nextInt(GameChecker.MAX_PLAYERS - 1);
+        lobby = new Lobby("sim-" + seed, "Simulation", new LobbyDirectory(), count, clock,
+                new WordGenerator(dictionary, new Random(random.nextLong())));
+
+        int leavers = 0;
+        for (int i = 0; i < count; i++) {
+            long latency = TimeUnit.MILLISECONDS.toNanos(5 + random.nextInt(146));
+            // a third of the players are too slow for most rounds and get eliminated
+            long reaction = TimeUnit.MILLISECONDS.toNanos(random.nextInt(3) == 0 ?
+                    8000 + random.nextInt(8000) : 1500 + random.nextInt(6500));
+            double accuracy = 0.6 + 0.4 * random.nextDouble();
+            long boundary = random.nextInt(10) == 0 ?
+                    BOUNDARY_OFFSETS[random.nextInt(BOUNDARY_OFFSETS.length)] : SimPlayer.NO_BOUNDARY;
+            SimPlayer player = new SimPlayer(this, "p" + i, new Random(random.nextLong()), latency, reaction,
+                    accuracy, boundary);
+            players.add(player);
+            lobby.addPlayer(player.player, player.connection);
+
+            clock.after(TimeUnit.MILLISECONDS.toNanos(random.nextInt(2000)), player::goReady);
+            if (count > 2 && leavers < count - 2 && random.nextInt(10) == 0) {
+                leavers++;
+                clock.after(TimeUnit.MILLISECONDS.toNanos(2000 + random.nextInt(200_000)), player::leave);
+            }
+        }
+    }
+
+    // Plays the game to the end of the queue, after the post-game kick
+    public Result run() {
+        while (checker.getViolation() == null && clock.runNext()) {
+            // until the queue is empty or an invariant broke
+        }
+        if (checker.getViolation() != null) {
+            throw checker.getViolation();
+        }
+        checker.finish(lobby);
+        return new Result(checker.getRounds(), clock.getEventsRun(), messages, typingUpdates, clock.nanoTime() - START);
+    }
+
+    public record Result(int rounds, long events, long messages, long typingUpdates, long virtualNanos) {}
+
+    void ready(SimPlayer player) {
+        lobby.setPlayerReady(player.player);
+        if (lobby.isGameActive() && !started) {
+            started = true;
+            checker.gameStarting(); // the game's first step runs later at this same time
+        }
+    }
+
+    // Arrives at the lobby now, with the RTT the connection would have measured
+    void submit(SimPlayer player, String answer) {
+        checker.submitted(player.username(), answer);
+        lobby.submitAnswer(player.player, answer, clock.nanoTime(), player.roundTrip());
+    }
+
+    // A broadcast hands the same Message to every connection in a row, check it once
+    void broadcastSeen(Message message) {
+        messages++;
+        if (message != lastBroadcast) {
+            lastBroadcast = message;
+            checker.onBroadcast(message);
+        }
+    }
+
+    void typingSeen() {
+        typingUpdates++;
+    }
+
+    // Five levels of distinct lowercase words, longer per level
+    public static List<List<String>> dictionary(long seed) {
+        Random random = new Random(seed);
+        Set<String> all = new HashSet<>();
+        List<List<String>> levels = new ArrayList<>();
+        for (int level = 0; level < 5; level++) {
+            List<String> words = new ArrayList<>(WORDS_PER_LEVEL);
+            while (words.size() < WORDS_PER_LEVEL) {
+                int length = 5 + level * 3 + random.nextInt(3);
+                StringBuilder word = new StringBuilder(length);
+                for (int i = 0; i < length; i++) {
+                    word.append((char) ('a' + random.nextInt(26)));
+                }
+                if (all.add(word.toString())) {
+                    words.add(word.toString());
+                }
+            }
+            levels.add(Collections.unmodifiableList(words));
+        }
+        return levels;
+    }
+
+    public static void main(String[] args) {
+        List<List<String>> dictionary = dictionary(436);
+        String replay = System.getProperty("sim.replay");
+        if (replay != null) {
+            long seed = Long.parseLong(replay);
+            Result result = new GameSimulation(seed, dictionary, true).run();
+            System.out.printf("seed %d passed: %d rounds, %d events, %.1fs of game time%n",
+                    seed, result.rounds(), result.events(), result.virtualNanos() / 1e9);
+            Result again = new GameSimulation(seed, dictionary, false).run();
+            if (!again.equals(result)) {
+                System.out.println("not deterministic, a second run gave " + again);
+                System.exit(1);
+            }
+            return;
+        }
+
+        int games = Integer.getInteger("sim.games", 1000);
+        long firstSeed = Long.getLong("sim.seed", 1);
+        long rounds = 0, events = 0, messages = 0, typing = 0, virtualNanos = 0;
+        List<String> failures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (long seed = firstSeed; seed < firstSeed + games; seed++) {
+            try {
+                Result result = new GameSimulation(seed, dictionary, false).run();
+                rounds += result.rounds();
+                events += result.events();
+                messages += result.messages();
+                typing += result.typingUpdates();
+                virtualNanos += result.virtualNanos();
+            } catch (RuntimeException e) {
+                failures.add("seed " + seed + ": " + e);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games from seed %d in %.2fs: %.0f games/s, %.0f rounds/s, %.0f events/s%n",
+                games, firstSeed, seconds, games / seconds, rounds / seconds, events / seconds);
+        System.out.printf("%d rounds, %d messages, %d typing updates, %.1f h of game time (%.0fx real time)%n",
+                rounds, messages, typing, virtualNanos / 3.6e12, virtualNanos / 1e9 / seconds);
+        if (failures.isEmpty()) {
+            System.out.println("all invariants held");
+            return;
+        }
+        System.out.println(failures.size() + " games violated invariants:");
+        failures.stream().limit(MAX_FAILURES_SHOWN).forEach(failure -> System.out.println("  " + failure));
+        System.out.println("replay one with -Dsim.replay=<seed>");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.wrd.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Pure game logic: whole simulated games on virtual time, a new seed per game, with the
+// invariant checks included. No sockets, serialization or sleeping.
+//   java -jar target/benchmarks.jar GameSimulationBenchmark
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameSimulationBenchmark {
+    private List<List<String>> dictionary;
+    private long seed;
+
+    @Setup
+    public void setup() {
+        dictionary = GameSimulation.dictionary(436);
+    }
+
+    @Benchmark
+    public GameSimulation.Result game() {
+        return new GameSimulation(seed++, dictionary, false).run();
+    }
+}
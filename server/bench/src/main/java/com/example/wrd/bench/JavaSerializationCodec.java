@@ -0,0 +1,33 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.Message;
+
+import java.io.*;
+
+// What ClientHandler does today: one ObjectOutputStream per connection, reset() after every
+// message so shared objects are never sent as back-references to stale state.
+public class JavaSerializationCodec implements MessageCodec {
+
+    @Override
+    public Encoder newEncoder(OutputStream out) throws IOException {
+        ObjectOutputStream output = new ObjectOutputStream(out);
+        output.flush();
+        return message -> {
+            output.writeObject(message);
+            output.reset();
+            output.flush();
+        };
+    }
+
+    @Override
+    public Decoder newDecoder(InputStream in) throws IOException {
+        ObjectInputStream input = new ObjectInputStream(in);
+        return () -> {
+            try {
+                return (Message) input.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+        };
+    }
+}
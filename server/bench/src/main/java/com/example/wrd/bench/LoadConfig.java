@@ -0,0 +1,23 @@
+package com.example.wrd.bench;
+
+// Load test settings, read once from -Dload.* system properties
+public record LoadConfig(String host, int port, int bots, int connectRate, int durationSeconds, double accuracy,
+                         int charsPerMinute, double typoRate, int fillTo, int readyAfterMs, int metricsPort,
+                         int reportInterval) {
+
+    public static LoadConfig fromSystemProperties() {
+        return new LoadConfig(
+                System.getProperty("load.host", "127.0.0.1"),
+                Integer.getInteger("load.port", 8888),
+                Integer.getInteger("load.bots", 100),
+                Integer.getInteger("load.connectRate", 100), // new connections per second
+                Integer.getInteger("load.duration", 60), // seconds of load after the last bot connected
+                Double.parseDouble(System.getProperty("load.accuracy", "0.9")), // share of answers spelled right
+                Integer.getInteger("load.cpm", 300), // typing speed, characters per minute
+                Double.parseDouble(System.getProperty("load.typoRate", "0.03")), // per keystroke, fixed with a backspace
+                Integer.getInteger("load.fillTo", 4), // players in the lobby before a bot goes ready
+                Integer.getInteger("load.readyAfterMs", 5000), // or after this long in the lobby
+                Integer.getInteger("load.metricsPort", 9464), // server scrape endpoint, 0 to skip
+                Integer.getInteger("load.reportInterval", 10)); // seconds between progress lines
+    }
+}
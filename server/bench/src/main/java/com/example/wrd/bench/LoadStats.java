@@ -0,0 +1,77 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.Histogram;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latency histograms shared by every bot of a load test. Latencies are nanos.
+public class LoadStats {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final long CLAIM_KEY_TTL = 60_000_000_000L; // first-receipt times kept this long
+
+    final Histogram join = new Histogram(); // connect to JOIN_SERVER_RESPONSE
+    final Histogram newWord = new Histogram(); // server round start to NEW_WORD received, clock-synced
+    final Histogram claimAck = new Histogram(); // SUBMIT_ANSWER sent to WORD_CLAIMED naming the bot
+    final Histogram fanOut = new Histogram(); // first bot to see a WORD_CLAIMED to each other bot seeing it
+
+    final LongAdder connected = new LongAdder();
+    final LongAdder busy = new LongAdder(); // SERVER_BUSY at accept time
+    final LongAdder joinFailed = new LongAdder();
+    final LongAdder connectFailed = new LongAdder();
+    final LongAdder dropped = new LongAdder(); // closed by the server or the network mid-test
+    final LongAdder messagesIn = new LongAdder();
+    final LongAdder messagesOut = new LongAdder();
+    final LongAdder rounds = new LongAdder(); // NEW_WORD received, summed over bots
+    final LongAdder submitted = new LongAdder();
+    final LongAdder claimsWon = new LongAdder();
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final Map<String, Long> firstClaimReceipt = new ConcurrentHashMap<>();
+
+    void opened() {
+        connected.increment();
+        int now = active.incrementAndGet();
+        peakActive.accumulateAndGet(now, Math::max);
+    }
+
+    void closed() {
+        active.decrementAndGet();
+    }
+
+    int getActive() {
+        return active.get();
+    }
+
+    int getPeakActive() {
+        return peakActive.get();
+    }
+
+    // key names one claimed word of one round in one lobby
+    void claimReceived(String key, long nowNanos) {
+        Long first = firstClaimReceipt.putIfAbsent(key, nowNanos);
+        fanOut.record(first == null ? 0 : nowNanos - first);
+    }
+
+    void expireClaimKeys(long nowNanos) {
+        for (Iterator<Long> it = firstClaimReceipt.values().iterator(); it.hasNext(); ) {
+            if (nowNanos - it.next() > CLAIM_KEY_TTL) {
+                it.remove();
+            }
+        }
+    }
+
+    static String percentiles(Histogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "no samples";
+        }
+        long[] values = histogram.quantiles(QUANTILES);
+        return String.format("p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms n=%d",
+                values[0] / 1e6, values[1] / 1e6, values[2] / 1e6, values[3] / 1e6,
+                histogram.getMax() / 1e6, histogram.getCount());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.wrd.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+// Headless load generator: connects load.bots players at load.connectRate per second, lets
+// them play for load.duration seconds and prints latency percentiles and failure counts,
+// plus the server's own gauges scraped from /metrics. Settings are in LoadConfig.
+//
+//   java -Dwrd.lobbies=500 -jar server.jar
+//   java -cp target/benchmarks.jar -Dload.bots=2000 -Dload.connectRate=200 com.example.wrd.bench.LoadTest
+//
+// The server only seats MAX_PLAYERS per lobby, so give it enough lobbies for the bot count.
+public class LoadTest {
+    private static final int SCHEDULER_THREADS = 4; // keystrokes and retries for all bots
+    private static final int CONNECT_THREADS = 32; // a connect blocks until the login is answered
+    private static final String[] SERVER_GAUGES = {
+            "wrd_connections", "wrd_players", "wrd_connections_shed_total", "wrd_game_threads"
+    };
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = LoadConfig.fromSystemProperties();
+        LoadStats stats = new LoadStats();
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(SCHEDULER_THREADS, daemon("BotScheduler"));
+        ExecutorService connector = Executors.newFixedThreadPool(CONNECT_THREADS, daemon("BotConnector"));
+        List<Bot> bots = new CopyOnWriteArrayList<>();
+
+        System.out.printf("Load test: %d bots at %d/s against %s:%d for %ds%n",
+                config.bots(), config.connectRate(), config.host(), config.port(), config.durationSeconds());
+        long start = System.nanoTime();
+        ScheduledFuture<?> progress = scheduler.scheduleAtFixedRate(() -> {
+            stats.expireClaimKeys(System.nanoTime());
+            printProgress(stats, start);
+        }, config.reportInterval(), config.reportInterval(), TimeUnit.SECONDS);
+
+        // paced against absolute times so a slow connect does not lower the rate
+        long intervalNanos = 1_000_000_000L / Math.max(1, config.connectRate());
+        List<Future<?>> connects = new ArrayList<>(config.bots());
+        for (int i = 0; i < config.bots(); i++) {
+            long wait = start + i * intervalNanos - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            Bot bot = new Bot(i, config, stats, scheduler);
+            connects.add(connector.submit(() -> {
+                if (bot.connect()) {
+                    bots.add(bot);
+                }
+            }));
+        }
+        for (Future<?> connect : connects) {
+            connect.get();
+        }
+        System.out.printf("All bots connected after %.1fs, %d active%n", (System.nanoTime() - start) / 1e9, stats.getActive());
+
+        TimeUnit.SECONDS.sleep(config.durationSeconds());
+        progress.cancel(false);
+        String serverMetrics = config.metricsPort() > 0 ? scrapeServer(config) : null;
+        for (Bot bot : bots) {
+            bot.close();
+        }
+        scheduler.shutdownNow();
+        connector.shutdownNow();
+
+        printReport(stats, start, serverMetrics);
+    }
+
+    private static void printProgress(LoadStats stats, long start) {
+        System.out.printf("[%4ds] active=%d rounds=%d submitted=%d won=%d in=%d out=%d dropped=%d%n",
+                (System.nanoTime() - start) / 1_000_000_000L, stats.getActive(), stats.rounds.sum(),
+                stats.submitted.sum(), stats.claimsWon.sum(), stats.messagesIn.sum(), stats.messagesOut.sum(),
+                stats.dropped.sum());
+    }
+
+    private static void printReport(LoadStats stats, long start, String serverMetrics) {
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println();
+        System.out.println("=== Load test report ===");
+        System.out.printf("join             %s%n", LoadStats.percentiles(stats.join));
+        System.out.printf("new word         %s%n", LoadStats.percentiles(stats.newWord));
+        System.out.printf("claim ack        %s%n", LoadStats.percentiles(stats.claimAck));
+        System.out.printf("claim fan-out    %s%n", LoadStats.percentiles(stats.fanOut));
+        System.out.printf("connected=%d busy=%d joinFailed=%d connectFailed=%d dropped=%d peakActive=%d%n",
+                stats.connected.sum(), stats.busy.sum(), stats.joinFailed.sum(), stats.connectFailed.sum(),
+                stats.dropped.sum(), stats.getPeakActive());
+        System.out.printf("messages in=%d (%.0f/s) out=%d (%.0f/s), rounds=%d, submitted=%d, won=%d%n",
+                stats.messagesIn.sum(), stats.messagesIn.sum() / seconds, stats.messagesOut.sum(),
+                stats.messagesOut.sum() / seconds, stats.rounds.sum(), stats.submitted.sum(), stats.claimsWon.sum());
+        if (serverMetrics != null) {
+            System.out.println("server:");
+            System.out.print(serverMetrics);
+        }
+    }
+
+    // The server's view at the end of the run, before the bots disconnect
+    private static String scrapeServer(LoadConfig config) {
+        StringBuilder out = new StringBuilder();
+        try {
+            URL url = new URL("http://" + config.host() + ":" + config.metricsPort() + "/metrics");
+            HttpURLConnection http = (HttpURLConnection) url.openConnection();
+            http.setConnectTimeout(2000);
+            http.setReadTimeout(5000);
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(http.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (isReported(line)) {
+                        out.append("  ").append(line).append('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            out.append("  metrics unavailable: ").append(e.getMessage()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static boolean isReported(String line) {
+        if (line.startsWith("#")) {
+            return false;
+        }
+        for (String gauge : SERVER_GAUGES) {
+            if (line.startsWith(gauge + " ") || line.startsWith(gauge + "{")) {
+                return true;
+            }
+        }
+        // rate limit violations only when there were some
+        return line.startsWith("wrd_rate_limit") && !line.endsWith(" 0") && !line.endsWith(" 0.0");
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One thread joins and leaves a lobby in a loop while others broadcast into it. Every join
+// and leave also broadcasts the player list and updates the lobby directory.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class LobbyChurnBenchmark {
+
+    @Param({"1", "7"})
+    public int seated; // players that stay, the churning one takes the last free seat
+
+    private Lobby lobby;
+    private Player churner;
+    private SinkHandler churnerHandler;
+    private Message message;
+
+    @Setup
+    public void setup() {
+        lobby = new Lobby("bench", "Bench", new LobbyDirectory(), seated + 1);
+        for (int i = 0; i < seated; i++) {
+            lobby.addPlayer(new Player("player" + i, "player" + i), new SinkHandler());
+        }
+        churner = new Player("churner", "churner");
+        churnerHandler = new SinkHandler();
+        message = Payload.SCORE_UPDATE.message();
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public void joinAndLeave() {
+        if (!lobby.addPlayer(churner, churnerHandler)) {
+            throw new IllegalStateException("Churning player could not join");
+        }
+        lobby.removePlayer(churner);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(3)
+    public void broadcast() {
+        lobby.broadcastMessage(message);
+    }
+}
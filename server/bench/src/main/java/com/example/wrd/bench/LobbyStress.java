@@ -0,0 +1,406 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Stress harness for the lobby's claim and membership races, run on real threads with games
+// on a FastClock. Two scenarios, each for stress.seconds:
+//   claims      every thread submits words and typing for any player through whole games;
+//               RecordingHandler checks one claimer per word, one word per player and round
+//               and no claims by eliminated players, the claim audit is checked after each game
+//   membership  threads join, leave, ready and submit for a pool larger than the lobby while
+//               games start, end on their own, get force-ended and kick everyone. Every epoch
+//               the workers stop, the lobby settles, and the harness checks that the ready
+//               count equals the ready players, every seat is held once, no player was dropped
+//               without LEAVE_LOBBY_SUCCESS and the lobby agrees with what each player was told.
+//               Players also check they get one GAME_ENDED per game and no kick mid-game.
+// Workers that stop making progress are reported with their stacks, exceptions on lobby
+// threads count as violations.
+//   java -cp target/benchmarks.jar -Dstress.threads=16 -Dstress.seconds=30 com.example.wrd.bench.LobbyStress
+public class LobbyStress {
+    private static final int THREADS = Integer.getInteger("stress.threads", Runtime.getRuntime().availableProcessors());
+    private static final int SECONDS = Integer.getInteger("stress.seconds", 10); // per scenario
+    private static final int SPEEDUP = Integer.getInteger("stress.speedup", 1000); // game time vs real time
+    private static final String SCENARIO = System.getProperty("stress.scenario", "all");
+
+    private static final long EPOCH = 200; // ms of membership churn between checks
+    private static final int LEAVE_ODDS = 10_000; // rare enough that games also end by elimination
+    private static final int FORCE_END_EPOCHS = 4; // an operator force-ends about once per this many epochs
+    private static final long HANG_TIMEOUT = 10_000; // ms without progress before workers count as hung
+    private static final int PLAYERS_PER_THREAD = 3; // membership pool, more than the lobby holds
+    private static final int MAX_VIOLATIONS_SHOWN = 20;
+
+    private final Map<String, AtomicLong> violations = new ConcurrentHashMap<>();
+    private final List<List<String>> dictionary = GameSimulation.dictionary(436);
+    private final FastClock clock = new FastClock(SPEEDUP);
+    private volatile boolean paused; // membership workers stop at the end of an epoch
+    private volatile boolean stopped;
+
+    public static void main(String[] args) throws Exception {
+        LobbyStress stress = new LobbyStress();
+        // a game thread that dies would otherwise only show up as a lobby that never settles
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) ->
+                stress.violation("uncaught on " + thread.getName() + ": " + e.getClass().getName() + " at " + e.getStackTrace()[0]));
+        System.out.printf("Lobby stress: %d threads, %ds per scenario, games at %dx%n", THREADS, SECONDS, SPEEDUP);
+        if (SCENARIO.equals("all") || SCENARIO.equals("claims")) {
+            stress.claims();
+        }
+        if (SCENARIO.equals("all") || SCENARIO.equals("membership")) {
+            stress.membership();
+        }
+        System.exit(stress.report() ? 0 : 1);
+    }
+
+    private void violation(String message) {
+        AtomicLong count = violations.computeIfAbsent(message, m -> new AtomicLong());
+        if (count.getAndIncrement() == 0 && violations.size() <= MAX_VIOLATIONS_SHOWN) {
+            System.out.println("  VIOLATION " + message);
+        }
+    }
+
+    private boolean report() {
+        if (violations.isEmpty()) {
+            System.out.println("all invariants held");
+            return true;
+        }
+        long total = violations.values().stream().mapToLong(AtomicLong::get).sum();
+        System.out.println(total + " violations of " + violations.size() + " kinds");
+        return false;
+    }
+
+    // Whole games with every player submitting from every thread
+    private void claims() throws InterruptedException {
+        int playerCount = Math.max(4, Math.min(12, 2 * THREADS)); // 12 keeps a game's decisions in the audit
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        int games = 0;
+        long submits = 0;
+        while (System.nanoTime() < end) {
+            Lobby lobby = new Lobby("claims", "Claims", new LobbyDirectory(), playerCount, clock,
+                    new WordGenerator(dictionary, new Random(games)));
+            Player[] players = new Player[playerCount];
+            RecordingHandler[] handlers = new RecordingHandler[playerCount];
+            for (int i = 0; i < playerCount; i++) {
+                players[i] = new Player("c" + i, "c" + i);
+                handlers[i] = new RecordingHandler(this::violation);
+                lobby.addPlayer(players[i], handlers[i]);
+            }
+            for (Player player : players) {
+                lobby.setPlayerReady(player);
+            }
+
+            RecordingHandler observer = handlers[0];
+            ClaimWorker[] workers = new ClaimWorker[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                workers[t] = new ClaimWorker(lobby, players, observer, t);
+                workers[t].start();
+            }
+            long hangDeadline = System.currentTimeMillis() + HANG_TIMEOUT + 300_000 / SPEEDUP;
+            for (ClaimWorker worker : workers) {
+                worker.join(Math.max(1, hangDeadline - System.currentTimeMillis()));
+                if (worker.isAlive()) {
+                    hung("claims game " + games, workers);
+                    return;
+                }
+                submits += worker.submits;
+            }
+            checkAudit(lobby);
+            games++;
+        }
+        System.out.printf("claims: %d games, %d submits%n", games, submits);
+    }
+
+    // Submits for random players until the observer sees the game end. Every fourth player
+    // sits out the first two rounds, gets eliminated, then keeps trying.
+    private class ClaimWorker extends Thread {
+        private final Lobby lobby;
+        private final Player[] players;
+        private final RecordingHandler observer;
+        long submits;
+
+        ClaimWorker(Lobby lobby, Player[] players, RecordingHandler observer, int index) {
+            super("ClaimWorker-" + index);
+            this.lobby = lobby;
+            this.players = players;
+            this.observer = observer;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            WordRound seen = null;
+            int roundsSeen = 0;
+            while (observer.getGamesEnded() == 0) {
+                WordRound round = observer.getLastRound();
+                if (round == null) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if (round != seen) {
+                    seen = round;
+                    roundsSeen++;
+                }
+                // any thread may submit for any player, like a connection's TCP and UDP threads
+                int slot = random.nextInt(players.length);
+                if (slot % 4 == 3 && roundsSeen <= 2) {
+                    continue;
+                }
+                List<String> words = round.getWords();
+                String word = words.get(random.nextInt(words.size()));
+                try {
+                    if (random.nextInt(4) == 0) {
+                        lobby.updateTyping(players[slot], word.substring(0, 1 + random.nextInt(word.length())));
+                    } else {
+                        lobby.submitAnswer(players[slot], random.nextInt(5) == 0 ? word + "x" : word,
+                                clock.nanoTime(), TimeUnit.MILLISECONDS.toNanos(random.nextInt(200)));
+                        submits++;
+                    }
+                } catch (RuntimeException e) {
+                    violation("claims: " + e.getClass().getName() + " at " + e.getStackTrace()[0]);
+                }
+            }
+        }
+    }
+
+    // One decision per word and round, at most one word per player and round, and the
+    // decision went to the earliest adjusted claim
+    private void checkAudit(Lobby lobby) {
+        Set<String> words = new HashSet<>();
+        Set<String> winners = new HashSet<>();
+        for (ClaimDecision decision : lobby.getClaimAudit()) {
+            if (!words.add(decision.round() + "/" + decision.word())) {
+                violation("two arbitration decisions for '" + decision.word() + "' in one round");
+            }
+            if (!winners.add(decision.round() + "/" + decision.winner())) {
+                violation(decision.winner() + " won two arbitrations in one round");
+            }
+            ClaimDecision.Candidate best = null;
+            for (ClaimDecision.Candidate candidate : decision.candidates()) {
+                if (best == null || candidate.adjustedMs() < best.adjustedMs()) {
+                    best = candidate;
+                }
+            }
+            if (best == null || best.adjustedMs() < adjustedOf(decision, decision.winner())) {
+                violation("arbitration did not pick the earliest claim: " + decision);
+            }
+        }
+    }
+
+    private static double adjustedOf(ClaimDecision decision, String username) {
+        for (ClaimDecision.Candidate candidate : decision.candidates()) {
+            if (candidate.username().equals(username)) {
+                return candidate.adjustedMs();
+            }
+        }
+        return Double.MAX_VALUE;
+    }
+
+    // Join, leave, ready and submit churn on one lobby, checked between epochs
+    private void membership() throws Exception {
+        Lobby lobby = new Lobby("members", "Members", new LobbyDirectory(), GameChecker.MAX_PLAYERS, clock,
+                new WordGenerator(dictionary, new Random(436)));
+        Member[] members = new Member[THREADS * PLAYERS_PER_THREAD];
+        for (int i = 0; i < members.length; i++) {
+            members[i] = new Member("m" + i);
+        }
+        CyclicBarrier barrier = new CyclicBarrier(THREADS + 1);
+        MemberWorker[] workers = new MemberWorker[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            workers[t] = new MemberWorker(lobby, members, barrier, t);
+            workers[t].start();
+        }
+
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        int epochs = 0;
+        try {
+            while (true) {
+                boolean last = System.nanoTime() >= end;
+                stopped = last;
+                barrier.await(HANG_TIMEOUT, TimeUnit.MILLISECONDS); // epoch starts
+                Thread.sleep(EPOCH);
+                paused = true;
+                barrier.await(HANG_TIMEOUT, TimeUnit.MILLISECONDS); // workers stopped
+                paused = false;
+                settle(lobby);
+                checkMembers(lobby, members);
+                epochs++;
+                if (last) {
+                    break;
+                }
+            }
+        } catch (TimeoutException | BrokenBarrierException e) {
+            hung("membership epoch " + epochs, workers);
+            return;
+        }
+        long ops = Arrays.stream(workers).mapToLong(worker -> worker.ops).sum();
+        long kicks = Arrays.stream(members).mapToLong(member -> member.handler.getKicks()).sum();
+        System.out.printf("membership: %d epochs, %d operations, %d players sent back after a game%n", epochs, ops, kicks);
+    }
+
+    // One pooled player. Only its worker thread touches the bookkeeping.
+    private class Member {
+        final Player player;
+        final RecordingHandler handler = new RecordingHandler(LobbyStress.this::violation);
+        boolean seated; // what the player was told: joined and not yet left
+        int kicksAtJoin;
+
+        Member(String name) {
+            this.player = new Player(name, name);
+        }
+
+        // Like a client, the player only knows it was sent back once LEAVE_LOBBY_SUCCESS arrived
+        boolean expectSeated() {
+            return seated && handler.getKicks() == kicksAtJoin;
+        }
+    }
+
+    private class MemberWorker extends Thread {
+        private final Lobby lobby;
+        private final Member[] members;
+        private final CyclicBarrier barrier;
+        private final int index;
+        long ops;
+
+        MemberWorker(Lobby lobby, Member[] members, CyclicBarrier barrier, int index) {
+            super("MemberWorker-" + index);
+            setDaemon(true);
+            this.lobby = lobby;
+            this.members = members;
+            this.barrier = barrier;
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try {
+                while (true) {
+                    barrier.await();
+                    if (stopped) {
+                        barrier.await();
+                        return;
+                    }
+                    // worker 0 plays the operator at a random point, most games end on their own
+                    long forceEndAt = index == 0 ? System.nanoTime() +
+                            random.nextLong(TimeUnit.MILLISECONDS.toNanos(FORCE_END_EPOCHS * EPOCH)) : Long.MAX_VALUE;
+                    while (!paused) {
+                        if (System.nanoTime() >= forceEndAt) {
+                            lobby.forceEndGame();
+                            forceEndAt = Long.MAX_VALUE;
+                        }
+                        Member member = members[index + THREADS * random.nextInt(PLAYERS_PER_THREAD)];
+                        try {
+                            operate(member, random);
+                        } catch (RuntimeException e) {
+                            violation("membership: " + e.getClass().getName() + " at " + e.getStackTrace()[0]);
+                        }
+                        ops++;
+                    }
+                    barrier.await();
+                }
+            } catch (InterruptedException | BrokenBarrierException e) {
+                // the harness gave up on this epoch
+            }
+        }
+
+        private void operate(Member member, ThreadLocalRandom random) {
+            if (random.nextInt(LEAVE_ODDS) == 0) {
+                lobby.removePlayer(member.player);
+                member.seated = false;
+                return;
+            }
+            int op = random.nextInt(100);
+            if (op < 30) {
+                if (!member.expectSeated()) {
+                    int kicks = member.handler.getKicks();
+                    member.handler.joining();
+                    if (lobby.addPlayer(member.player, member.handler)) {
+                        member.seated = true;
+                        member.kicksAtJoin = kicks;
+                    }
+                }
+            } else if (op < 60) {
+                lobby.setPlayerReady(member.player);
+            } else {
+                WordRound round = member.handler.getLastRound();
+                if (round != null) {
+                    String word = round.getWords().get(random.nextInt(round.getWords().size()));
+                    lobby.submitAnswer(member.player, word, clock.nanoTime(), 0);
+                }
+            }
+        }
+    }
+
+    // No worker runs, so end any game and let a pending kick and the game thread finish
+    private void settle(Lobby lobby) throws InterruptedException {
+        LobbyStatus status = lobby.status();
+        if (status.gameActive() && status.gameThreadState() == Thread.State.TERMINATED) {
+            violation("game active but its thread has exited, phase " + status.phase());
+        }
+        lobby.forceEndGame();
+        long deadline = System.currentTimeMillis() + HANG_TIMEOUT;
+        while (System.currentTimeMillis() < deadline) {
+            status = lobby.status();
+            boolean kickPending = status.phase() == Lobby.Phase.GAME_OVER;
+            boolean threadRunning = status.gameThreadState() != null && status.gameThreadState() != Thread.State.TERMINATED;
+            if (!status.gameActive() && !kickPending && !threadRunning) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+        violation("lobby did not settle: " + lobby.status().phase() + ", active " + lobby.status().gameActive());
+    }
+
+    private void checkMembers(Lobby lobby, Member[] members) {
+        LobbyStatus status = lobby.status();
+        int ready = 0;
+        Set<String> seated = new HashSet<>();
+        Set<Integer> slots = new HashSet<>();
+        for (PlayerView view : status.players()) {
+            if (!seated.add(view.username())) {
+                violation(view.username() + " holds two seats");
+            }
+            if (!slots.add(view.slot())) {
+                violation("slot " + view.slot() + " held twice");
+            }
+            if (view.ready()) {
+                ready++;
+            }
+        }
+        if (status.playerCount() != status.players().size()) {
+            violation("player count " + status.playerCount() + " with " + status.players().size() + " seated");
+        }
+        if (status.readyCount() != ready) {
+            violation("ready count " + status.readyCount() + " with " + ready + " ready players");
+        }
+        for (Member member : members) {
+            boolean expected = member.expectSeated();
+            if (expected && !seated.contains(member.player.getUsername())) {
+                violation("player dropped without LEAVE_LOBBY_SUCCESS");
+            } else if (!expected && seated.contains(member.player.getUsername())) {
+                violation("player seated after it left or was sent back to the list");
+            }
+            if (member.handler.getLeftLobbyCount() != member.handler.getKicks()) {
+                violation("sent back to the lobby list " + member.handler.getLeftLobbyCount() +
+                        " times but told " + member.handler.getKicks() + " times");
+            }
+            if (expected && lobby.addPlayer(member.player, member.handler)) {
+                violation("a second join of a seated player succeeded");
+            }
+        }
+    }
+
+    private void hung(String where, Thread[] workers) {
+        violation("workers stopped making progress in " + where);
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                System.out.println("  " + worker.getName() + " " + worker.getState());
+                for (StackTraceElement frame : worker.getStackTrace()) {
+                    System.out.println("    at " + frame);
+                }
+            }
+        }
+    }
+}
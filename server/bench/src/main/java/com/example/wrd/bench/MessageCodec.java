@@ -0,0 +1,26 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.Message;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// A wire format for Message, modelled as the two ends of one long-lived connection so codecs
+// with per-connection state (class descriptors, dictionaries) are measured the way the server
+// uses them. To compare a new codec, implement this and add it to Codecs.
+public interface MessageCodec {
+
+    Encoder newEncoder(OutputStream out) throws IOException;
+
+    Decoder newDecoder(InputStream in) throws IOException;
+
+    interface Encoder {
+        // Writes one complete frame; everything written must be readable by the peer afterwards
+        void write(Message message) throws IOException;
+    }
+
+    interface Decoder {
+        Message read() throws IOException;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Representative messages for every payload the server sends in volume, sized like a full
+// lobby (8 players, 7 words) and a first page of the lobby list
+public enum Payload {
+    SCORE_UPDATE {
+        @Override
+        Message message() {
+            return new Message(MessageType.SCORE_UPDATE, player(3));
+        }
+    },
+    PLAYER_LIST_UPDATE {
+        @Override
+        Message message() {
+            PlayerView[] players = new PlayerView[8];
+            for (int slot = 0; slot < players.length; slot++) {
+                players[slot] = player(slot);
+            }
+            return new Message(MessageType.PLAYER_LIST_UPDATE, players);
+        }
+    },
+    NEW_WORD {
+        @Override
+        Message message() {
+            return new Message(MessageType.NEW_WORD, round());
+        }
+    },
+    WORD_CLAIMED {
+        @Override
+        Message message() {
+            WordRound round = round();
+            round.setClaimedBy(0, "player3");
+            round.setClaimedBy(4, "player6");
+            return new Message(MessageType.WORD_CLAIMED, round);
+        }
+    },
+    TYPING_UPDATE {
+        @Override
+        Message message() {
+            return new Message(MessageType.TYPING_UPDATE, TypingDelta.between(3, 12, "catastroph", "catastrophe"));
+        }
+    },
+    LOBBY_LIST {
+        @Override
+        Message message() {
+            return new Message(MessageType.LOBBY_LIST, new LobbyList(42, lobbies(20)));
+        }
+    },
+    LOBBY_PAGE {
+        @Override
+        Message message() {
+            LobbyInfo[] page = lobbies(20);
+            return new Message(MessageType.LOBBY_PAGE, new LobbyPage(page, "lobby 20\0lobby20", 42, 7));
+        }
+    };
+
+    abstract Message message();
+
+    private static PlayerView player(int slot) {
+        return new PlayerView(slot, "player" + slot, 1200 + slot * 37, slot % 2, false, "catastro", 9, "#448AFF", true);
+    }
+
+    private static WordRound round() {
+        List<String> words = new ArrayList<>(List.of("catastrophe", "government", "dangerous", "incredible",
+                "philosophy", "remarkable", "atmosphere"));
+        return new WordRound(words, 13000, 1_700_000_000_000L);
+    }
+
+    private static LobbyInfo[] lobbies(int count) {
+        LobbyInfo[] lobbies = new LobbyInfo[count];
+        for (int i = 0; i < count; i++) {
+            lobbies[i] = new LobbyInfo("lobby" + (i + 1), "Lobby " + (i + 1), i % 9, 8, i % 3 == 0);
+        }
+        return lobbies;
+    }
+}
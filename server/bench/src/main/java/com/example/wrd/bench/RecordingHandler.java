@@ -0,0 +1,154 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// A connection that checks what it is sent. Broadcasts reach it synchronously on the
+// lobby's threads, and its monitor orders them the way those threads sent them, so anything
+// that cannot happen in one game is reported as it arrives.
+public class RecordingHandler extends ClientHandler {
+    private final Consumer<String> violations;
+    private final AtomicInteger kicks = new AtomicInteger(); // LEAVE_LOBBY_SUCCESS received
+    private final AtomicInteger leftLobby = new AtomicInteger(); // seats cleared by the lobby
+    private volatile WordRound lastRound;
+    private volatile int gamesEnded;
+
+    // current game, guarded by this
+    private boolean inGame; // between the first countdown tick and GAME_ENDED
+    private boolean ended; // GAME_ENDED with nothing since that could start another game
+    private final Set<String> eliminated = new HashSet<>();
+    private final Map<String, Integer> claims = new HashMap<>(); // by username
+    private final Map<String, Integer> scoreUpdates = new HashMap<>();
+    private WordRound claimRound;
+    private String[] claimers;
+
+    public RecordingHandler(Consumer<String> violations) {
+        super(new Socket(), null);
+        this.violations = violations;
+    }
+
+    @Override
+    public synchronized void sendMessage(Message message) {
+        switch (message.getType()) {
+            case GAME_STARTING:
+                if ((Integer) message.getData() == 3) {
+                    inGame = true;
+                    ended = false;
+                    eliminated.clear();
+                    claims.clear();
+                    scoreUpdates.clear();
+                }
+                break;
+            case PLAYER_LIST_UPDATE:
+                // a ready or a leave may start the next game, which can end before it ticks
+                ended = false;
+                break;
+            case NEW_WORD:
+                lastRound = (WordRound) message.getData();
+                break;
+            case WORD_CLAIMED:
+                checkClaims((WordRound) message.getData());
+                break;
+            case SCORE_UPDATE:
+                scoreUpdates.merge(((PlayerView) message.getData()).username(), 1, Integer::sum);
+                break;
+            case PLAYER_ELIMINATED:
+                eliminated.add(((PlayerView) message.getData()).username());
+                break;
+            case GAME_ENDED:
+                if (ended) {
+                    violations.accept("GAME_ENDED sent twice for one game");
+                }
+                inGame = false;
+                ended = true;
+                // a forced end has no winner and may cut an award in half
+                if (message.getData() != null && !claims.equals(scoreUpdates)) {
+                    violations.accept("claims " + claims + " but score updates " + scoreUpdates);
+                }
+                gamesEnded++;
+                break;
+            case LEAVE_LOBBY_SUCCESS:
+                if (inGame) {
+                    violations.accept("sent back to the lobby list during a game");
+                }
+                inGame = false;
+                ended = false;
+                kicks.incrementAndGet();
+                break;
+            default:
+                break;
+        }
+    }
+
+    // One claimer per word, one word per player and round, claims never change hands and
+    // eliminated players never claim
+    private void checkClaims(WordRound round) {
+        if (round != claimRound) {
+            claimRound = round;
+            claimers = new String[round.getWords().size()];
+        }
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < claimers.length; i++) {
+            String claimer = round.getClaimerAt(i);
+            if (claimer == null) {
+                if (claimers[i] != null) {
+                    violations.accept("claim on '" + round.getWords().get(i) + "' was taken back");
+                }
+                continue;
+            }
+            if (!seen.add(claimer)) {
+                violations.accept(claimer + " claimed two words in one round: " + round.getClaimedBy());
+            }
+            if (claimers[i] == null) {
+                claimers[i] = claimer;
+                claims.merge(claimer, 1, Integer::sum);
+                if (eliminated.contains(claimer)) {
+                    violations.accept("eliminated player " + claimer + " claimed '" + round.getWords().get(i) + "'");
+                }
+            } else if (!claimers[i].equals(claimer)) {
+                violations.accept("'" + round.getWords().get(i) + "' changed hands from " + claimers[i] + " to " + claimer);
+            }
+        }
+    }
+
+    // The harness is about to seat this player, a game it walked out of is over
+    public synchronized void joining() {
+        inGame = false;
+        ended = false;
+    }
+
+    @Override
+    public void sendTypingUpdate(Message deltaMessage, String fullText) {
+        // typing fan-out is not checked
+    }
+
+    // Called by the lobby under its player mutex while it clears the seats
+    @Override
+    public void leftLobby(Lobby lobby) {
+        leftLobby.incrementAndGet();
+        super.leftLobby(lobby);
+    }
+
+    public int getKicks() {
+        return kicks.get();
+    }
+
+    public int getLeftLobbyCount() {
+        return leftLobby.get();
+    }
+
+    public WordRound getLastRound() {
+        return lastRound;
+    }
+
+    public int getGamesEnded() {
+        return gamesEnded;
+    }
+}
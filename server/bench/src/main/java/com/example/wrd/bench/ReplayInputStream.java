@@ -0,0 +1,46 @@
+package com.example.wrd.bench;
+
+import java.io.InputStream;
+
+// A connection that sends its stream header once and then the same frame forever, so a
+// decoder can be benchmarked on its steady state without allocating new input per call
+final class ReplayInputStream extends InputStream {
+    private final byte[] header;
+    private final byte[] frame;
+    private byte[] current;
+    private int position;
+
+    ReplayInputStream(byte[] header, byte[] frame) {
+        this.header = header;
+        this.frame = frame;
+        this.current = header.length > 0 ? header : frame;
+    }
+
+    @Override
+    public int read() {
+        int b = current[position++] & 0xff;
+        advance();
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        advance();
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current.length - position;
+    }
+
+    private void advance() {
+        if (position == current.length) {
+            current = frame;
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.*;
+
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// A simulated player with a seeded profile. It sees broadcasts after its one-way latency and
+// its submits reach the lobby one latency after it sends them, all on the VirtualClock.
+// Like a misbehaving client it keeps playing after elimination; the lobby has to ignore it.
+class SimPlayer {
+    private static final long MIN_REACTION = TimeUnit.MILLISECONDS.toNanos(300);
+    private static final double TYPO_RETRY = 0.5; // share of the reaction time spent retyping a wrong answer
+
+    final Player player;
+    final Connection connection = new Connection();
+    private final GameSimulation simulation;
+    private final VirtualClock clock;
+    private final Random random;
+
+    private final long latency; // one way
+    private final long reactionMean;
+    private final double accuracy;
+    private final long boundaryOffset; // aims every submit at the deadline plus this, or NO_BOUNDARY
+    static final long NO_BOUNDARY = Long.MIN_VALUE;
+
+    private boolean left;
+    private WordRound round;
+    private long deadline;
+    private boolean won;
+    private int generation; // bumped to drop scheduled actions of an earlier target
+
+    SimPlayer(GameSimulation simulation, String username, Random random, long latency, long reactionMean,
+              double accuracy, long boundaryOffset) {
+        this.player = new Player(username, username);
+        this.simulation = simulation;
+        this.clock = simulation.clock;
+        this.random = random;
+        this.latency = latency;
+        this.reactionMean = reactionMean;
+        this.accuracy = accuracy;
+        this.boundaryOffset = boundaryOffset;
+    }
+
+    String username() {
+        return player.getUsername();
+    }
+
+    long roundTrip() {
+        return 2 * latency;
+    }
+
+    // Sends a frame that reaches the lobby after the player's latency
+    private void send(Runnable atServer) {
+        clock.after(latency, () -> {
+            if (!left) {
+                atServer.run();
+            }
+        });
+    }
+
+    void goReady() {
+        send(() -> simulation.ready(this));
+    }
+
+    void leave() {
+        send(() -> {
+            simulation.lobby.removePlayer(player);
+            left = true;
+        });
+    }
+
+    private void receive(Message message) {
+        switch (message.getType()) {
+            case NEW_WORD:
+                round = (WordRound) message.getData();
+                deadline = TimeUnit.MILLISECONDS.toNanos(round.getDeadlineServerTime());
+                won = false;
+                pickTarget(reaction());
+                break;
+            case WORD_CLAIMED:
+                onWordClaimed((WordRound) message.getData());
+                break;
+            case GAME_ENDED:
+                round = null;
+                generation++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onWordClaimed(WordRound claimed) {
+        if (round == null) {
+            return;
+        }
+        for (int i = 0; i < claimed.getWords().size(); i++) {
+            if (username().equals(claimed.getClaimerAt(i))) {
+                won = true;
+            }
+        }
+        if (!won) {
+            pickTarget((long) (reaction() * TYPO_RETRY)); // someone took it, go for another one
+        }
+    }
+
+    // Types a random unclaimed word and submits it after delay
+    private void pickTarget(long delay) {
+        List<String> open = new ArrayList<>();
+        for (int i = 0; i < round.getWords().size(); i++) {
+            if (!round.isWordClaimed(i)) {
+                open.add(round.getWords().get(i));
+            }
+        }
+        int current = ++generation;
+        if (open.isEmpty()) {
+            return;
+        }
+        String target = open.get(random.nextInt(open.size()));
+        if (boundaryOffset != NO_BOUNDARY) {
+            delay = Math.max(0, deadline + boundaryOffset - latency - clock.nanoTime());
+        }
+        for (int typed = 1; typed < target.length(); typed += 3) {
+            String prefix = target.substring(0, typed);
+            clock.after(delay * typed / target.length(), () -> {
+                if (current == generation) {
+                    send(() -> simulation.lobby.updateTyping(player, prefix));
+                }
+            });
+        }
+        clock.after(delay, () -> submit(target, current));
+    }
+
+    private void submit(String target, int current) {
+        if (current != generation) {
+            return;
+        }
+        boolean correct = random.nextDouble() < accuracy;
+        String answer = correct ? target : target + "x";
+        send(() -> simulation.submit(this, answer));
+        if (!correct) {
+            long retry = (long) (reaction() * TYPO_RETRY);
+            clock.after(retry, () -> submit(target, current));
+        }
+    }
+
+    private long reaction() {
+        return Math.max(MIN_REACTION, (long) (reactionMean * (1 + random.nextGaussian() * 0.3)));
+    }
+
+    // The player's connection, delivering after the latency instead of writing to a socket
+    class Connection extends ClientHandler {
+        Connection() {
+            super(new Socket(), null);
+        }
+
+        @Override
+        public void sendMessage(Message message) {
+            simulation.broadcastSeen(message);
+            clock.after(latency, () -> receive(message));
+        }
+
+        @Override
+        public void sendTypingUpdate(Message deltaMessage, String fullText) {
+            simulation.typingSeen();
+        }
+    }
+}
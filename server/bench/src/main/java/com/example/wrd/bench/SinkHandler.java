@@ -0,0 +1,44 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.ClientHandler;
+import com.example.wrd.Message;
+import com.example.wrd.MessageType;
+import com.example.wrd.WordRound;
+
+import java.net.Socket;
+
+// A connection without a socket or writer thread. Messages land in a counter behind one
+// monitor, roughly what OutboundQueue.enqueue costs, so lobby benchmarks measure locking and
+// fan-out rather than the network.
+public class SinkHandler extends ClientHandler {
+    private long delivered;
+    private volatile WordRound lastRound;
+
+    public SinkHandler() {
+        super(new Socket(), null);
+    }
+
+    @Override
+    public void sendMessage(Message message) {
+        synchronized (this) {
+            delivered++;
+        }
+        if (message.getType() == MessageType.NEW_WORD) {
+            lastRound = (WordRound) message.getData();
+        }
+    }
+
+    @Override
+    public void sendTypingUpdate(Message deltaMessage, String fullText) {
+        sendMessage(deltaMessage);
+    }
+
+    public synchronized long getDelivered() {
+        return delivered;
+    }
+
+    // Words of the last NEW_WORD this connection saw, null before the first round
+    public WordRound getLastRound() {
+        return lastRound;
+    }
+}
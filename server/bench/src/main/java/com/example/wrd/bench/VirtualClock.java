@@ -0,0 +1,104 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.GameClock;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Discrete-event GameClock. Time only moves when the next event runs, events at the same
+// time run in the order they were scheduled, and everything runs on the caller's thread,
+// so a simulation started from the same seed replays exactly.
+public class VirtualClock implements GameClock {
+    private final PriorityQueue<Event> queue = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+    private long eventsRun;
+
+    public VirtualClock(long startNanos) {
+        this.now = startNanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public long toMillis(long nanoTime) {
+        return nanoTime / 1_000_000;
+    }
+
+    public void at(long timeNanos, Runnable task) {
+        if (timeNanos < now) {
+            throw new IllegalArgumentException("Event in the past: " + timeNanos + " < " + now);
+        }
+        queue.add(new Event(timeNanos, sequence++, task));
+    }
+
+    public void after(long delayNanos, Runnable task) {
+        at(now + delayNanos, task);
+    }
+
+    @Override
+    public Thread runSteps(String name, LongSupplier step) {
+        at(now, new Runnable() {
+            @Override
+            public void run() {
+                long next = step.getAsLong();
+                if (next != DONE) {
+                    at(next, this);
+                }
+            }
+        });
+        return null;
+    }
+
+    @Override
+    public Timer newTimer(String name) {
+        return new Timer() {
+            private boolean shutdown;
+
+            @Override
+            public void schedule(Runnable task, long delay, TimeUnit unit) {
+                if (shutdown) {
+                    throw new IllegalStateException(name + " is shut down");
+                }
+                after(unit.toNanos(delay), () -> {
+                    if (!shutdown) {
+                        task.run();
+                    }
+                });
+            }
+
+            @Override
+            public void shutdown() {
+                shutdown = true;
+            }
+        };
+    }
+
+    // Runs the next event, false when there is none left
+    public boolean runNext() {
+        Event event = queue.poll();
+        if (event == null) {
+            return false;
+        }
+        now = event.time;
+        eventsRun++;
+        event.task.run();
+        return true;
+    }
+
+    public long getEventsRun() {
+        return eventsRun;
+    }
+
+    private record Event(long time, long sequence, Runnable task) implements Comparable<Event> {
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
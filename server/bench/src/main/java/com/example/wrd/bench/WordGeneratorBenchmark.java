@@ -0,0 +1,48 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.WordGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Picking a round's words from dictionaries of growing size; count follows lobby size
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WordGeneratorBenchmark {
+
+    @Param({"5", "100", "10000", "200000"})
+    public int dictionarySize;
+
+    @Param({"1", "7"})
+    public int count;
+
+    private WordGenerator generator;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(436);
+        List<String> words = new ArrayList<>(dictionarySize);
+        for (int i = 0; i < dictionarySize; i++) {
+            StringBuilder word = new StringBuilder(10);
+            for (int j = 0; j < 10; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        List<String> level = Collections.unmodifiableList(words);
+        generator = new WordGenerator(List.of(level, level, level, level, level), new Random(436));
+    }
+
+    @Benchmark
+    public List<String> getWords() {
+        return generator.getWords(1, count);
+    }
+}
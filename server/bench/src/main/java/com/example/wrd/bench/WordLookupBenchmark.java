@@ -0,0 +1,108 @@
+package com.example.wrd.bench;
+
+import com.example.wrd.WordRound;
+import com.example.wrd.WordTrie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compares the trie used by Lobby against the linear WordRound scan it replaced.
+// wordCount follows lobby size (players - 1 words per round), up to very large lobbies.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WordLookupBenchmark {
+
+    @Param({"1", "7", "63", "511"})
+    public int wordCount;
+
+    @Param({"9", "45"})
+    public int wordLength;
+
+    private List<String> words;
+    private WordRound wordRound;
+    private WordTrie trie;
+    private WordTrie.Cursor cursor;
+    private String hit;
+    private String miss;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(436);
+        words = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            StringBuilder sb = new StringBuilder(wordLength);
+            for (int j = 0; j < wordLength; j++) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            words.add(sb.toString());
+        }
+        wordRound = new WordRound(words, 13000);
+        trie = new WordTrie(words);
+        cursor = trie.newCursor();
+        // worst case for the scan: the last word, and a miss that shares a long prefix
+        hit = new String(words.get(wordCount - 1).toCharArray());
+        miss = hit.substring(0, wordLength - 1) + '#';
+    }
+
+    @Benchmark
+    public int submitLinearHit() {
+        return wordRound.findWordIndex(hit);
+    }
+
+    @Benchmark
+    public int submitTrieHit() {
+        return trie.findWordIndex(hit);
+    }
+
+    @Benchmark
+    public int submitLinearMiss() {
+        return wordRound.findWordIndex(miss);
+    }
+
+    @Benchmark
+    public int submitTrieMiss() {
+        return trie.findWordIndex(miss);
+    }
+
+    // One full word typed key by key, checking after every key which words are still reachable
+    @Benchmark
+    public void typingLinear(Blackhole bh) {
+        for (int len = 1; len <= hit.length(); len++) {
+            String typed = hit.substring(0, len);
+            int onTrack = 0;
+            for (String word : words) {
+                if (word.startsWith(typed)) {
+                    onTrack++;
+                }
+            }
+            bh.consume(onTrack);
+        }
+    }
+
+    @Benchmark
+    public void typingTrie(Blackhole bh) {
+        cursor.reset();
+        for (int i = 0; i < hit.length(); i++) {
+            cursor.append(hit.charAt(i));
+            bh.consume(cursor.candidates().length);
+        }
+    }
+
+    @Benchmark
+    public int typingTrieFullText() {
+        // the server receives the whole text per update, set() only walks the changed suffix
+        cursor.reset();
+        for (int len = 1; len <= hit.length(); len++) {
+            cursor.set(hit.substring(0, len));
+        }
+        return cursor.matchedWord();
+    }
+}
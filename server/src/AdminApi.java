@@ -0,0 +1,205 @@
+package com.example.wrd;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Operator endpoints next to /metrics, loopback only:
+//   GET  /admin/lobbies                  every lobby with phase, round, players and game thread
+//   GET  /admin/connections              every connection with queue depth, RTT and bytes
+//   GET  /admin/actions                  accepted actions that have not finished yet
+//   POST /admin/lobbies/<id>/end         end the running game
+//   POST /admin/lobbies/<id>/drain       end the game, send everyone out, refuse joins
+//   POST /admin/lobbies/<id>/reopen      accept joins again after a drain
+// Reads use the lock-free status snapshots. Each action runs on a thread of its own and is
+// answered with 202 right away, so a lobby stuck on its mutex can neither hang the endpoint
+// nor hold up actions on other lobbies; it shows up under /admin/actions instead.
+public class AdminApi {
+    private final GameServer server;
+    private final Map<Thread, PendingAction> pending = new ConcurrentHashMap<>();
+
+    public AdminApi(GameServer server) {
+        this.server = server;
+    }
+
+    void register(HttpServer http) {
+        http.createContext("/admin/lobbies", this::handleLobbies);
+        http.createContext("/admin/connections", this::handleConnections);
+        http.createContext("/admin/actions", this::handleActions);
+    }
+
+    // Actions still blocked stay behind as daemon threads, the process is going away anyway
+    void stop() {
+        for (Thread thread : pending.keySet()) {
+            thread.interrupt();
+        }
+    }
+
+    private void runAction(Lobby lobby, String name, Runnable action) {
+        Thread thread = new Thread(() -> {
+            try {
+                action.run();
+            } finally {
+                pending.remove(Thread.currentThread());
+            }
+        }, "AdminAction-" + lobby.getId() + "-" + name);
+        thread.setDaemon(true);
+        pending.put(thread, new PendingAction(lobby.getId(), name, System.nanoTime()));
+        thread.start();
+    }
+
+    private void handleLobbies(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            // "", "admin", "lobbies"[, id, action]
+            if (path.length == 3 && "GET".equals(exchange.getRequestMethod())) {
+                StringBuilder out = new StringBuilder(4096).append('[');
+                for (Lobby lobby : server.getLobbyDirectory().getLobbies()) {
+                    if (out.length() > 1) out.append(',');
+                    appendLobby(out, lobby.status());
+                }
+                respond(exchange, 200, out.append("]\n").toString());
+            } else if (path.length == 5 && "POST".equals(exchange.getRequestMethod())) {
+                Lobby lobby = server.getLobby(path[3]);
+                Runnable action = lobby == null ? null : actionFor(lobby, path[4]);
+                if (action == null) {
+                    respond(exchange, 404, "{\"error\":\"unknown lobby or action\"}\n");
+                    return;
+                }
+                runAction(lobby, path[4], action);
+                respond(exchange, 202, "{\"accepted\":" + Json.quote(new StringBuilder(), path[4]) + "}\n");
+            } else {
+                respond(exchange, 405, "{\"error\":\"method not allowed\"}\n");
+            }
+        }
+    }
+
+    private static Runnable actionFor(Lobby lobby, String action) {
+        switch (action) {
+            case "end":
+                return lobby::forceEndGame;
+            case "drain":
+                return lobby::drain;
+            case "reopen":
+                return lobby::reopen;
+            default:
+                return null;
+        }
+    }
+
+    private void handleActions(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":\"method not allowed\"}\n");
+                return;
+            }
+            long now = System.nanoTime();
+            StringBuilder out = new StringBuilder(256).append('[');
+            for (Map.Entry<Thread, PendingAction> entry : pending.entrySet()) {
+                PendingAction action = entry.getValue();
+                if (out.length() > 1) out.append(',');
+                out.append("{\"lobby\":");
+                Json.quote(out, action.lobbyId());
+                Json.field(out, "action");
+                Json.quote(out, action.action());
+                Json.field(out, "ageMs").append(TimeUnit.NANOSECONDS.toMillis(now - action.acceptedNanos()));
+                Json.field(out, "thread");
+                Json.quote(out, entry.getKey().getName());
+                Json.field(out, "threadState");
+                Json.quote(out, entry.getKey().getState().name());
+                out.append('}');
+            }
+            respond(exchange, 200, out.append("]\n").toString());
+        }
+    }
+
+    private void handleConnections(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, "{\"error\":\"method not allowed\"}\n");
+                return;
+            }
+            StringBuilder out = new StringBuilder(4096).append('[');
+            for (ClientHandler handler : server.getSessions().getConnections()) {
+                if (out.length() > 1) out.append(',');
+                appendConnection(out, handler.status());
+            }
+            respond(exchange, 200, out.append("]\n").toString());
+        }
+    }
+
+    private static void appendLobby(StringBuilder out, LobbyStatus status) {
+        out.append("{\"id\":");
+        Json.quote(out, status.id());
+        Json.field(out, "name");
+        Json.quote(out, status.name());
+        Json.field(out, "phase").append('"').append(status.phase()).append('"');
+        Json.field(out, "round").append(status.round());
+        Json.field(out, "gameActive").append(status.gameActive());
+        Json.field(out, "draining").append(status.draining());
+        Json.field(out, "playerCount").append(status.playerCount());
+        Json.field(out, "readyCount").append(status.readyCount());
+        Json.field(out, "gameThread");
+        Json.quote(out, status.gameThread());
+        Json.field(out, "gameThreadState");
+        Json.quote(out, status.gameThreadState() == null ? null : status.gameThreadState().name());
+        Json.field(out, "mutexQueueLength").append(status.mutexQueueLength());
+        Json.field(out, "mutexHolder");
+        Json.quote(out, status.mutexHolder());
+        Json.field(out, "players").append('[');
+        boolean first = true;
+        for (PlayerView player : status.players()) {
+            if (!first) out.append(',');
+            first = false;
+            out.append("{\"slot\":").append(player.slot());
+            Json.field(out, "username");
+            Json.quote(out, player.username());
+            Json.field(out, "score").append(player.score());
+            Json.field(out, "missCount").append(player.missCount());
+            Json.field(out, "eliminated").append(player.eliminated());
+            Json.field(out, "ready").append(player.ready());
+            out.append('}');
+        }
+        out.append("]}");
+    }
+
+    private static void appendConnection(StringBuilder out, ConnectionStatus status) {
+        out.append("{\"remoteAddress\":");
+        Json.quote(out, status.remoteAddress());
+        Json.field(out, "playerId");
+        Json.quote(out, status.playerId());
+        Json.field(out, "username");
+        Json.quote(out, status.username());
+        Json.field(out, "lobby");
+        Json.quote(out, status.lobbyId());
+        Json.field(out, "outboundDepth").append(status.outboundDepth());
+        Json.field(out, "droppedCosmetic").append(status.droppedCosmetic());
+        Json.field(out, "rttMs").append(status.rttMs());
+        Json.field(out, "rttP50Ms").append(status.rttP50Ms());
+        Json.field(out, "rttP90Ms").append(status.rttP90Ms());
+        Json.field(out, "rttP99Ms").append(status.rttP99Ms());
+        Json.field(out, "bytesIn").append(status.bytesIn());
+        Json.field(out, "bytesOut").append(status.bytesOut());
+        Json.field(out, "idleMs").append(status.idleMs());
+        Json.field(out, "udp").append(status.udp());
+        Json.field(out, "rateLimitViolations").append(status.rateLimitViolations());
+        out.append('}');
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private record PendingAction(String lobbyId, String action, long acceptedNanos) {}
+}
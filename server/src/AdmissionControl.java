@@ -0,0 +1,62 @@
+package com.example.wrd;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Decides at accept time whether a new connection gets a handler. Connections over the
+// limits are turned away with SERVER_BUSY instead of slowing down everybody already in.
+public class AdmissionControl {
+    public enum Reason { CONNECTION_LIMIT, HANDSHAKE_RATE, POOL_EXHAUSTED }
+
+    private final ServerConfig config;
+    private final TokenBucket handshakes;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder[] shed = new LongAdder[Reason.values().length];
+
+    public AdmissionControl(ServerConfig config) {
+        this.config = config;
+        this.handshakes = new TokenBucket(config.handshakesPerSecond(), config.handshakeBurst());
+        for (int i = 0; i < shed.length; i++) {
+            shed[i] = new LongAdder();
+        }
+    }
+
+    // Null if the connection may proceed, otherwise why it is shed
+    public Reason admit(int openConnections) {
+        if (openConnections >= config.maxConnections()) {
+            return Reason.CONNECTION_LIMIT;
+        }
+        if (!handshakes.tryAcquire()) {
+            return Reason.HANDSHAKE_RATE;
+        }
+        admitted.increment();
+        return null;
+    }
+
+    public void recordShed(Reason reason) {
+        shed[reason.ordinal()].increment();
+    }
+
+    // Jittered so clients shed in the same burst don't all come back at the same instant
+    public long retryAfterMillis() {
+        int base = config.retryAfterMs();
+        return base + ThreadLocalRandom.current().nextInt(base / 2 + 1);
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getShed(Reason reason) {
+        return shed[reason.ordinal()].sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("admitted=").append(getAdmitted());
+        for (Reason reason : Reason.values()) {
+            sb.append(", shed ").append(reason.name().toLowerCase()).append('=').append(getShed(reason));
+        }
+        return sb.toString();
+    }
+}
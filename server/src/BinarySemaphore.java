@@ -1,24 +1,70 @@
 package com.example.wrd;
 
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+// Binary semaphore on AbstractQueuedSynchronizer: state 1 is available, 0 taken. V() may come
+// from any thread and hands the permit to one queued waiter instead of waking all of them.
+// P() does not give up on interrupt, but leaves the thread's interrupt status set.
 public class BinarySemaphore {
-    boolean value;
+    private final Sync sync;
+    private final SemaphoreStats stats = new SemaphoreStats();
+    private volatile Thread holder;
+    private long acquiredNanos; // written by the acquirer, read by the releaser after the permit handoff
 
     public BinarySemaphore(boolean initValue) {
-        value = initValue;
+        sync = new Sync(initValue ? 1 : 0);
+    }
+
+    public void P() {
+        if (sync.tryAcquire(1)) {
+            stats.recordAcquire();
+        } else {
+            long start = System.nanoTime();
+            sync.acquire(1);
+            stats.recordContended(System.nanoTime() - start);
+        }
+        acquiredNanos = System.nanoTime();
+        holder = Thread.currentThread();
+    }
+
+    public void V() {
+        if (holder != null) {
+            stats.recordHold(System.nanoTime() - acquiredNanos);
+            holder = null;
+        }
+        sync.release(1);
+    }
+
+    public SemaphoreStats getStats() {
+        return stats;
+    }
+
+    // Threads currently queued in P(), an estimate while they come and go
+    public int getQueueLength() {
+        return sync.getQueueLength();
     }
 
-    public synchronized void P() {
-        while (!value)
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                System.out.println("BinarySemaphore interrupted");
-            }
-        value = false;
+    // Thread that last passed P() and has not called V() yet, null when free
+    public Thread getHolder() {
+        return holder;
     }
 
-    public synchronized void V() {
-        value = true;
-        notifyAll();
+    private static final class Sync extends AbstractQueuedSynchronizer {
+        private static final long serialVersionUID = 1L;
+
+        Sync(int permits) {
+            setState(permits);
+        }
+
+        @Override
+        protected boolean tryAcquire(int ignored) {
+            return compareAndSetState(1, 0);
+        }
+
+        @Override
+        protected boolean tryRelease(int ignored) {
+            setState(1); // a second V() keeps it at one permit
+            return true;
+        }
     }
-}
\ No newline at end of file
+}
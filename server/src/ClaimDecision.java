@@ -0,0 +1,23 @@
+package com.example.wrd;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Audit record of one arbitration window: every competing claim and who got the word
+public record ClaimDecision(String lobbyId, int round, String word, long windowMs,
+                            List<Candidate> candidates, String winner) {
+
+    // Times are relative to the NEW_WORD broadcast of the round
+    public record Candidate(String username, double receivedMs, double rttMs, double adjustedMs) {
+        @Override
+        public String toString() {
+            return String.format("%s recv=%.1fms rtt=%.1fms adj=%.1fms", username, receivedMs, rttMs, adjustedMs);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Claim arbitration " + lobbyId + " round " + round + " '" + word + "' window=" + windowMs + "ms -> " +
+                winner + " " + candidates.stream().map(Candidate::toString).collect(Collectors.joining(", ", "[", "]"));
+    }
+}
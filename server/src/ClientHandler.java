@@ -1,5 +1,7 @@
 package com.example.wrd;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.io.*;
 import java.net.*;
@@ -11,10 +13,33 @@ public class ClientHandler implements Runnable {
     private final GameServer server;
     private ObjectInputStream input;
     private ObjectOutputStream output;
-    private Player player;
-    private Lobby currentLobby;
+    private volatile CountingInputStream inputBytes;
+    private volatile CountingOutputStream outputBytes;
+    private volatile Player player;
+    private SessionRegistry.Session session;
+    private volatile Lobby currentLobby;
     private volatile boolean running;
-    private final Object outputLock = new Object();
+    private final OutboundQueue outbound = new OutboundQueue();
+    private final RttEstimator rtt = new RttEstimator();
+    private final InboundLimiter limiter = new InboundLimiter();
+    private volatile long lastReceivedNanos = System.nanoTime();
+    // client's input field rebuilt from its edits (TCP deltas or UDP snapshots)
+    private final Object typingLock = new Object();
+    private String typedText = "";
+    private int typingSeq;
+    private boolean typingResyncPending;
+    private boolean typingBroadcastDeferred; // latest text not fanned out yet because of the rate limit
+    private boolean typingFlushScheduled;
+    private static final int MAX_BATCH_MESSAGES = 64; // writes coalesced into one flush at most
+    private static final long MAX_BATCH_BYTES = 32 * 1024;
+    private static final long MAX_BATCH_MICROS = 2000; // oldest unflushed write waits at most this long
+    private static final long UDP_ACK_TIMEOUT = 5000; // ms without a probe ack before typing falls back to TCP
+
+    private long udpToken;
+    private volatile long udpProbeNonce;
+    private volatile SocketAddress udpAddress; // set only once a probe ack proved server -> client datagrams arrive
+    private volatile long lastUdpAckNanos;
+    private final Object udpLock = new Object();
 
     public ClientHandler(Socket socket, GameServer server) {
         this.socket = socket;
@@ -25,30 +50,59 @@ public class ClientHandler implements Runnable {
     @Override
     public void run() {
         try {
-            output = new ObjectOutputStream(socket.getOutputStream());
+            outputBytes = new CountingOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            output = new ObjectOutputStream(outputBytes);
             output.flush();
-            input = new ObjectInputStream(socket.getInputStream());
+            inputBytes = new CountingInputStream(new BufferedInputStream(socket.getInputStream()));
+            input = new ObjectInputStream(inputBytes);
+
+            try {
+                server.startWriter(this::writeLoop);
+            } catch (RejectedExecutionException e) {
+                reap("no writer thread available");
+                return;
+            }
 
+            long bytesRead = inputBytes.getCount();
             while (running) {
                 Message message = (Message) input.readObject();
-                handleMessage(message);
+                // monotonic arrival time of the frame, used for claim arbitration and RTT
+                long receivedNanos = System.nanoTime();
+                lastReceivedNanos = receivedNanos;
+                Metrics.recordInbound(message.getType(), inputBytes.getCount() - bytesRead);
+                bytesRead = inputBytes.getCount();
+                handleMessage(message, receivedNanos);
+                Metrics.recordDispatch(message.getType(), System.nanoTime() - receivedNanos);
             }
         } catch (EOFException e) {
-            System.out.println("Client disconnected");
+            EventLog.log("client_disconnected", null, EventLog.NONE, player != null ? player.getId() : null, null);
         } catch (Exception e) {
-            e.printStackTrace();
+            // a reaped connection fails here by design
+            if (running) {
+                e.printStackTrace();
+            }
         } finally {
             cleanup();
         }
     }
 
-    private void handleMessage(Message message) {
+    private void handleMessage(Message message, long receivedNanos) {
+        InboundLimiter.Verdict verdict = limiter.check(message.getType(), receivedNanos);
+        if (verdict == InboundLimiter.Verdict.DISCONNECT) {
+            reap("inbound rate limit exceeded " + limiter.getViolations() + " times");
+            return;
+        }
+        if (verdict == InboundLimiter.Verdict.OVER_LIMIT && message.getType() != MessageType.TYPING_UPDATE) {
+            refuseOverLimit(message.getType()); // dropped before it can reach the lobby
+            return;
+        }
+
         switch (message.getType()) {
             case JOIN_SERVER:
                 handleJoinServer(message);
                 break;
             case GET_LOBBIES:
-                handleGetLobbies();
+                handleGetLobbies(message);
                 break;
             case JOIN_LOBBY:
                 handleJoinLobby(message);
@@ -60,50 +114,113 @@ public class ClientHandler implements Runnable {
                 handlePlayerReady();
                 break;
             case TYPING_UPDATE:
-                handleTypingUpdate(message);
+                // over the limit the edit still lands in the mirror, only its fan-out is merged
+                handleTypingUpdate(message, verdict == InboundLimiter.Verdict.OVER_LIMIT);
                 break;
             case SUBMIT_ANSWER:
-                handleSubmitAnswer(message);
+                handleSubmitAnswer(message, receivedNanos);
                 break;
             case REQUEST_PLAYER_LIST:
                 handleRequestPlayerList();
                 break;
+            case TYPING_RESYNC:
+                handleTypingResync(message);
+                break;
+            case PONG:
+                if (message.getData() instanceof Long seq) {
+                    rtt.probeAnswered(seq, receivedNanos);
+                }
+                break;
+            case TIME_SYNC:
+                TimeSync probe = (TimeSync) message.getData();
+                sendMessage(new Message(MessageType.TIME_SYNC, probe.reply(ServerClock.toMillis(receivedNanos))));
+                break;
+            case SUBSCRIBE_LOBBIES:
+                server.getLobbyDirectory().subscribe(this, (LobbyQuery) message.getData());
+                break;
+            case UNSUBSCRIBE_LOBBIES:
+                server.getLobbyDirectory().unsubscribe(this);
+                break;
+        }
+    }
+
+    // A client waiting on a reply would hang on a silently dropped request, so those get their
+    // failure answer. Fire-and-forget types need none.
+    private void refuseOverLimit(MessageType type) {
+        switch (type) {
+            case JOIN_LOBBY:
+                sendMessage(new Message(MessageType.JOIN_LOBBY_FAILED, "Slow down"));
+                break;
+            case GET_LOBBIES:
+            case SUBSCRIBE_LOBBIES:
+                sendMessage(new Message(MessageType.REQUEST_THROTTLED, type));
+                break;
+            default:
+                break;
         }
     }
 
     private void handleJoinServer(Message message) {
         String username = (String) message.getData();
-        player = new Player(generatePlayerId(), username);
+        if (player != null) {
+            sendMessage(new Message(MessageType.JOIN_SERVER_FAILED, "Already joined as " + player.getUsername()));
+            return;
+        }
+        if (username == null || username.isBlank()) {
+            sendMessage(new Message(MessageType.JOIN_SERVER_FAILED, "Username is empty"));
+            return;
+        }
+        Player joining = new Player(generatePlayerId(), username);
+        session = server.getSessions().register(joining, this);
+        if (session == null) {
+            sendMessage(new Message(MessageType.JOIN_SERVER_FAILED, "Username " + username.trim() + " is already in use"));
+            return;
+        }
+        player = joining;
 
-        Message response = new Message(MessageType.JOIN_SERVER_RESPONSE, player);
+        // the only frame carrying the long id, inside a lobby players are known by slot
+        Message response = new Message(MessageType.JOIN_SERVER_RESPONSE, player.getId());
         sendMessage(response);
-        System.out.println("Player joined: " + username);
-    }
+        EventLog.log("player_joined", null, EventLog.NONE, player.getId(), player.getUsername());
 
-    private void handleGetLobbies() {
-        LobbyInfo[] lobbyInfos = server.getLobbies().values().stream()
-            .map(lobby -> new LobbyInfo(
-                lobby.getId(),
-                lobby.getName(),
-                lobby.getPlayerCount(),
-                lobby.getMaxPlayers(),
-                lobby.isGameActive()
-            ))
-            .toArray(LobbyInfo[]::new);
+        TypingChannel typingChannel = server.getTypingChannel();
+        if (typingChannel != null && udpToken == 0) {
+            udpProbeNonce = typingChannel.newProbeNonce();
+            udpToken = typingChannel.register(this);
+            sendMessage(new Message(MessageType.UDP_OFFER, udpToken));
+        }
+    }
 
-        Message response = new Message(MessageType.LOBBY_LIST, lobbyInfos);
-        sendMessage(response);
+    // The request may carry a LobbyQuery for one page, or the version of the full list the
+    // client already shows, or null for the full list
+    private void handleGetLobbies(Message message) {
+        if (message.getData() instanceof LobbyQuery query) {
+            sendMessage(new Message(MessageType.LOBBY_PAGE, server.getLobbyDirectory().query(query)));
+            return;
+        }
+        LobbyList lobbyList = server.getLobbyDirectory().snapshot();
+        Long knownVersion = (Long) message.getData();
+        if (knownVersion != null && knownVersion == lobbyList.getVersion()) {
+            sendMessage(new Message(MessageType.LOBBY_LIST_NOT_MODIFIED, knownVersion));
+            return;
+        }
+        sendMessage(new Message(MessageType.LOBBY_LIST, lobbyList));
     }
 
     private void handleJoinLobby(Message message) {
         String lobbyId = (String) message.getData();
         Lobby lobby = server.getLobby(lobbyId);
 
-        if (lobby != null && lobby.addPlayer(player, this)) {
+        if (player != null && lobby != null && lobby.addPlayer(player, this)) {
             currentLobby = lobby;
+            synchronized (typingLock) {
+                typedText = "";
+                typingSeq = 0;
+                typingResyncPending = false;
+            }
             Message response = new Message(MessageType.JOIN_LOBBY_SUCCESS, lobbyId);
             sendMessage(response);
-            System.out.println("Player " + player.getUsername() + " joined lobby " + lobbyId);
+            EventLog.log("lobby_joined", lobbyId, EventLog.NONE, player.getId(), player.getUsername());
         } else {
             Message response = new Message(MessageType.JOIN_LOBBY_FAILED, "Lobby is full or game in progress");
             sendMessage(response);
@@ -112,7 +229,7 @@ public class ClientHandler implements Runnable {
 
     private void handleLeaveLobby() {
         if (currentLobby != null) {
-            System.out.println("Player " + player.getUsername() + " left lobby " + currentLobby.getId());
+            EventLog.log("lobby_left", currentLobby.getId(), EventLog.NONE, player.getId(), player.getUsername());
             currentLobby.removePlayer(player);
             currentLobby = null;
             Message response = new Message(MessageType.LEAVE_LOBBY_SUCCESS, null);
@@ -122,16 +239,139 @@ public class ClientHandler implements Runnable {
 
     private void handlePlayerReady() {
         if (currentLobby != null && player != null) {
-            System.out.println("Player " + player.getUsername() + " is ready");
             currentLobby.setPlayerReady(player);
         }
     }
 
-    private void handleTypingUpdate(Message message) {
+    private void handleTypingUpdate(Message message, boolean deferBroadcast) {
+        if (currentLobby == null) {
+            return;
+        }
+        TypingDelta delta = (TypingDelta) message.getData();
+        String updated = null;
+        boolean requestResync = false;
+        synchronized (typingLock) {
+            boolean inSequence = delta.getSeq() == typingSeq + 1;
+            if (delta.getOp() == TypingDelta.Op.REPLACE || (inSequence && !typingResyncPending)) {
+                updated = delta.applyTo(typedText);
+            }
+            if (updated != null) {
+                typedText = updated;
+                typingSeq = delta.getSeq();
+                typingResyncPending = false;
+            } else if (!typingResyncPending) {
+                // an edit went missing, ask once for the whole text and ignore edits until it arrives
+                typingResyncPending = true;
+                requestResync = true;
+            }
+        }
+        if (requestResync) {
+            sendMessage(new Message(MessageType.TYPING_RESYNC, null));
+        } else if (updated != null) {
+            broadcastTyping(currentLobby, updated, deferBroadcast);
+        }
+    }
+
+    // A deferred update is folded into the next one that is within budget, or goes out as
+    // soon as the typing bucket has refilled if the client stops typing
+    private void broadcastTyping(Lobby lobby, String text, boolean deferBroadcast) {
+        boolean scheduleFlush;
+        synchronized (typingLock) {
+            typingBroadcastDeferred = deferBroadcast;
+            scheduleFlush = deferBroadcast && !typingFlushScheduled;
+            typingFlushScheduled |= scheduleFlush;
+        }
+        if (scheduleFlush) {
+            server.schedule(this::flushDeferredTyping,
+                    limiter.nanosUntilAllowed(MessageType.TYPING_UPDATE, System.nanoTime()));
+        }
+        if (!deferBroadcast) {
+            lobby.updateTyping(player, text);
+        }
+    }
+
+    private void flushDeferredTyping() {
+        Lobby lobby = currentLobby;
+        String text;
+        synchronized (typingLock) {
+            typingFlushScheduled = false;
+            if (!typingBroadcastDeferred || lobby == null) {
+                return;
+            }
+            typingBroadcastDeferred = false;
+            text = typedText;
+        }
+        lobby.updateTyping(player, text);
+    }
+
+    public SocketAddress getUdpAddress() {
+        return udpAddress;
+    }
+
+    public long getUdpProbeNonce() {
+        return udpProbeNonce;
+    }
+
+    // Called by the TypingChannel thread when the client acked a probe, i.e. the server's
+    // datagrams reach it. Clients keep hello-ing, so acks double as the keepalive.
+    public void onUdpProbeAck(SocketAddress address) {
+        synchronized (udpLock) {
+            lastUdpAckNanos = System.nanoTime();
+            if (udpAddress == null) {
+                // enqueued under the lock so READY and LOST reach the client in the order they happened
+                sendMessage(new Message(MessageType.UDP_READY, null));
+            }
+            udpAddress = address; // follows a NAT rebinding too
+        }
+    }
+
+    // Maintenance tick: without recent acks the path may have closed, go back to TCP deltas
+    public void checkUdpLiveness(long nowNanos) {
+        synchronized (udpLock) {
+            if (udpAddress == null
+                    || nowNanos - lastUdpAckNanos <= TimeUnit.MILLISECONDS.toNanos(UDP_ACK_TIMEOUT)) {
+                return;
+            }
+            udpAddress = null;
+            sendMessage(new Message(MessageType.UDP_LOST, null));
+        }
+    }
+
+    // Latest-value-wins snapshot from the TypingChannel thread, stale ones are dropped
+    public void onUdpTypingSnapshot(int seq, String text) {
+        Lobby lobby = currentLobby;
+        InboundLimiter.Verdict verdict = limiter.check(MessageType.TYPING_UPDATE, System.nanoTime());
+        if (verdict == InboundLimiter.Verdict.DISCONNECT) {
+            reap("inbound rate limit exceeded " + limiter.getViolations() + " times");
+            return;
+        }
+        synchronized (typingLock) {
+            if (lobby == null || seq <= typingSeq) {
+                return;
+            }
+            typedText = text;
+            typingSeq = seq;
+            typingResyncPending = false;
+        }
+        broadcastTyping(lobby, text, verdict == InboundLimiter.Verdict.OVER_LIMIT);
+    }
+
+    // Typing fan-out: a datagram snapshot for UDP clients, the TCP delta for everyone else
+    public void sendTypingUpdate(Message deltaMessage, String fullText) {
+        SocketAddress address = udpAddress;
+        TypingChannel typingChannel = server.getTypingChannel();
+        if (address != null && typingChannel != null) {
+            TypingDelta delta = (TypingDelta) deltaMessage.getData();
+            typingChannel.sendPlayerSnapshot(address, delta.getPlayerSlot(), delta.getSeq(), fullText);
+        } else {
+            outbound.enqueueTyping(deltaMessage, fullText);
+        }
+    }
+
+    private void handleTypingResync(Message message) {
         if (currentLobby != null) {
-            String typedText = (String) message.getData();
-            player.setCurrentTypedText(typedText);
-            currentLobby.broadcastTypingUpdate(player);
+            int slot = (Integer) message.getData();
+            currentLobby.sendTypingSnapshot(this, slot);
         }
     }
 
@@ -141,34 +381,148 @@ public class ClientHandler implements Runnable {
         }
     }
 
-    private void handleSubmitAnswer(Message message) {
+    private void handleSubmitAnswer(Message message, long receivedNanos) {
         if (currentLobby != null) {
             String answer = (String) message.getData();
-            currentLobby.submitAnswer(player, answer);
+            currentLobby.submitAnswer(player, answer, receivedNanos, rtt.getSmoothedNanos());
+        }
+    }
+
+    public void sendPing() {
+        sendMessage(new Message(MessageType.PING, rtt.nextProbeSeq()));
+    }
+
+    public Lobby getCurrentLobby() {
+        return currentLobby;
+    }
+
+    // The lobby sent everyone back to the lobby list
+    public void leftLobby(Lobby lobby) {
+        if (currentLobby == lobby) {
+            currentLobby = null;
         }
     }
 
+    // Volatile reads only, safe to call while the connection's threads are blocked
+    public ConnectionStatus status() {
+        Player current = player;
+        Lobby lobby = currentLobby;
+        CountingInputStream in = inputBytes;
+        CountingOutputStream out = outputBytes;
+        return new ConnectionStatus(String.valueOf(socket.getRemoteSocketAddress()),
+                current != null ? current.getId() : null, current != null ? current.getUsername() : null,
+                lobby != null ? lobby.getId() : null, outbound.depth(), outbound.getDroppedCosmetic(),
+                rtt.hasSamples() ? rtt.getSmoothedNanos() / 1_000_000.0 : -1,
+                rtt.percentileNanos(50) / 1_000_000.0, rtt.percentileNanos(90) / 1_000_000.0,
+                rtt.percentileNanos(99) / 1_000_000.0,
+                in != null ? in.getCount() : 0, out != null ? out.getCount() : 0,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastReceivedNanos),
+                udpAddress != null, limiter.getViolations());
+    }
+
+    public long getRateLimitViolations() {
+        return limiter.getViolations();
+    }
+
+    public RttEstimator getRtt() {
+        return rtt;
+    }
+
+    // Every client answers PING, so silence this long means a dead or half-open peer
+    public boolean isIdle(long nowNanos, long timeoutNanos) {
+        return nowNanos - lastReceivedNanos > timeoutNanos;
+    }
+
+    // Closing the socket unblocks the reader, whose cleanup frees the lobby seat and both threads
+    public void reap(String reason) {
+        EventLog.log("connection_closed", null, EventLog.NONE, player != null ? player.getId() : null,
+                socket.getRemoteSocketAddress() + ": " + reason);
+        running = false;
+        closeSocket();
+    }
+
+    // Never blocks on the network, the writer thread drains the queue by priority
     public void sendMessage(Message message) {
-        synchronized (outputLock) {
-            try {
-                output.writeObject(message);
-                output.flush();
+        if (!outbound.enqueue(message)) {
+            reap("outbound queue overflow");
+        }
+    }
+
+    public int getOutboundDepth() {
+        return outbound.depth();
+    }
+
+    private void writeLoop() {
+        List<OutboundQueue.Entry> unflushed = new ArrayList<>();
+        long batchBytes = 0;
+        long batchStartNanos = 0;
+        try {
+            OutboundQueue.Entry entry;
+            while ((entry = outbound.take()) != null) {
+                if (entry.getMessage().getData() instanceof TimeSync sync) {
+                    // stamp as late as possible so queueing counts as server time, not network time
+                    sync.stampServerSend(ServerClock.nowMillis());
+                } else if (entry.getMessage().getType() == MessageType.PING) {
+                    rtt.probeSent((Long) entry.getMessage().getData(), System.nanoTime());
+                }
+                long bytesBefore = outputBytes.getCount();
+                output.writeObject(entry.getMessage());
                 output.reset();
-            } catch (IOException e) {
+                long size = outputBytes.getCount() - bytesBefore;
+                Metrics.recordOutbound(entry.getMessage().getType(), size);
+                if (unflushed.isEmpty()) {
+                    batchStartNanos = System.nanoTime();
+                }
+                unflushed.add(entry);
+                batchBytes += size;
+
+                // batch a burst into one socket write, flush as soon as nothing else is waiting,
+                // or once the batch is big or old enough that a steady stream does not hold it back
+                if (outbound.isEmpty() || unflushed.size() >= MAX_BATCH_MESSAGES || batchBytes >= MAX_BATCH_BYTES
+                        || System.nanoTime() - batchStartNanos >= TimeUnit.MICROSECONDS.toNanos(MAX_BATCH_MICROS)) {
+                    output.flush();
+                    batchBytes = 0;
+                    long now = System.nanoTime();
+                    for (OutboundQueue.Entry written : unflushed) {
+                        long latency = now - written.getEnqueuedNanos();
+                        OutboundQueue.latency(written.getPriority()).record(latency);
+                        Metrics.OUTBOUND_LATENCY[written.getPriority().ordinal()].record(latency);
+                    }
+                    unflushed.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (running) {
                 e.printStackTrace();
             }
+            // unblock the reader so cleanup runs
+            closeSocket();
         }
     }
 
     private void cleanup() {
         running = false;
+        server.getSessions().connectionClosed(this);
+        if (session != null) {
+            server.getSessions().unregister(session);
+        }
+        server.getLobbyDirectory().unsubscribe(this);
+        TypingChannel typingChannel = server.getTypingChannel();
+        if (typingChannel != null && udpToken != 0) {
+            typingChannel.unregister(udpToken);
+        }
         if (currentLobby != null) {
             currentLobby.removePlayer(player);
         }
+        outbound.close();
+        closeSocket();
+    }
+
+    private void closeSocket() {
         try {
-            if (input != null) input.close();
-            if (output != null) output.close();
-            if (socket != null) socket.close();
+            socket.close();
         } catch (IOException e) {
             e.printStackTrace();
         }
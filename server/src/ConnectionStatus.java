@@ -0,0 +1,8 @@
+package com.example.wrd;
+
+// Operator view of one connection, see ClientHandler.status()
+public record ConnectionStatus(String remoteAddress, String playerId, String username, String lobbyId,
+                               int outboundDepth, long droppedCosmetic, double rttMs, double rttP50Ms,
+                               double rttP90Ms, double rttP99Ms, long bytesIn, long bytesOut,
+                               long idleMs, boolean udp, long rateLimitViolations) {
+}
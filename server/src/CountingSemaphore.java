@@ -1,35 +1,93 @@
 package com.example.wrd;
 
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+
+// Counting semaphore on AbstractQueuedSynchronizer's shared mode. V() wakes one waiter.
+// P() does not give up on interrupt, but leaves the thread's interrupt status set.
 public class CountingSemaphore {
-    int value;
+    private final Sync sync;
+    private final SemaphoreStats stats = new SemaphoreStats();
 
     public CountingSemaphore(int initValue) {
-        value = initValue;
+        sync = new Sync(initValue);
     }
 
-    public synchronized void P() {
-        while (value == 0)
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                System.out.println("CountingSemaphore interrupted");
-            }
-        value--;
+    public void P() {
+        if (sync.tryAcquireShared(1) >= 0) {
+            stats.recordAcquire();
+        } else {
+            long start = System.nanoTime();
+            sync.acquireShared(1);
+            stats.recordContended(System.nanoTime() - start);
+        }
     }
 
-    public synchronized void V() {
-        value++;
-        notify();
+    // Non-blocking P(): takes a permit if one is there, false otherwise
+    public boolean tryP() {
+        if (sync.tryAcquireShared(1) < 0) {
+            return false;
+        }
+        stats.recordAcquire();
+        return true;
+    }
+
+    public void V() {
+        sync.releaseShared(1);
     }
 
     // Helper method to get current value (for checking ready count)
-    public synchronized int getValue() {
-        return value;
+    public int getValue() {
+        return sync.permits();
     }
 
     // Helper method to reset value (for game restart)
-    public synchronized void reset(int newValue) {
-        value = newValue;
-        notifyAll();
+    public void reset(int newValue) {
+        sync.reset(newValue);
+    }
+
+    public SemaphoreStats getStats() {
+        return stats;
+    }
+
+    public int getQueueLength() {
+        return sync.getQueueLength();
+    }
+
+    private static final class Sync extends AbstractQueuedSynchronizer {
+        private static final long serialVersionUID = 1L;
+
+        Sync(int permits) {
+            setState(permits);
+        }
+
+        int permits() {
+            return getState();
+        }
+
+        void reset(int permits) {
+            setState(permits);
+            releaseShared(0); // let waiters re-check against the new count
+        }
+
+        @Override
+        protected int tryAcquireShared(int acquires) {
+            while (true) {
+                int available = getState();
+                int remaining = available - acquires;
+                if (remaining < 0 || compareAndSetState(available, remaining)) {
+                    return remaining;
+                }
+            }
+        }
+
+        @Override
+        protected boolean tryReleaseShared(int releases) {
+            while (true) {
+                int current = getState();
+                if (compareAndSetState(current, current + releases)) {
+                    return true;
+                }
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,258 @@
+package com.example.wrd;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Structured server log. Callers write typed fields into a preallocated ring and return
+// without locking or I/O; a background thread drains the ring into rotating JSON-lines files.
+// When the ring is full the record is dropped and counted, a game thread never waits on disk.
+public final class EventLog {
+    public static final int NONE = -1; // for round and latency when the record has none
+
+    private static final int CAPACITY = 8192; // records, power of two
+    private static final int MASK = CAPACITY - 1;
+    private static final long FLUSH_INTERVAL = 50; // ms the writer sleeps when the ring is empty
+    private static final long MAX_FILE_BYTES = 16L * 1024 * 1024;
+    private static final int MAX_FILES = 5; // wrd-events.log plus .1 to .4
+    private static final String FILE_NAME = "wrd-events.log";
+
+    // Bounded multi-producer ring (Vyukov). sequences[i] == position means slot i is free for
+    // the producer claiming that position, position + 1 that it holds a record for the writer.
+    private static final Entry[] ENTRIES = new Entry[CAPACITY];
+    private static final AtomicLongArray SEQUENCES = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong TAIL = new AtomicLong();
+    private static long head; // only touched by the writer thread
+
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final LongAdder WRITTEN = new LongAdder();
+
+    private static volatile Thread writer;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            ENTRIES[i] = new Entry();
+            SEQUENCES.set(i, i);
+        }
+    }
+
+    private EventLog() {}
+
+    // Starts the writer once; records logged before that wait in the ring
+    public static synchronized void start(Path directory, boolean console) {
+        if (writer != null) return;
+        Writer task = new Writer(directory, console);
+        writer = new Thread(task, "EventLogWriter");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(task::drainOnExit, "EventLogShutdown"));
+    }
+
+    public static void log(String event, String message) {
+        log(event, null, NONE, null, NONE, message);
+    }
+
+    public static void log(String event, String lobbyId, int round, String playerId, String message) {
+        log(event, lobbyId, round, playerId, NONE, message);
+    }
+
+    public static void log(String event, String lobbyId, int round, String playerId, long latencyNanos, String message) {
+        long position = TAIL.get();
+        while (true) {
+            int index = (int) position & MASK;
+            long sequence = SEQUENCES.get(index);
+            if (sequence == position) {
+                if (TAIL.compareAndSet(position, position + 1)) {
+                    Entry entry = ENTRIES[index];
+                    entry.timeMillis = System.currentTimeMillis();
+                    entry.event = event;
+                    entry.lobbyId = lobbyId;
+                    entry.round = round;
+                    entry.playerId = playerId;
+                    entry.latencyNanos = latencyNanos;
+                    entry.message = message;
+                    SEQUENCES.set(index, position + 1); // publishes the fields to the writer
+                    return;
+                }
+                position = TAIL.get();
+            } else if (sequence < position) {
+                DROPPED.increment(); // the writer has not freed this slot yet, the ring is full
+                return;
+            } else {
+                position = TAIL.get(); // another producer took this position
+            }
+        }
+    }
+
+    public static long getDropped() {
+        return DROPPED.sum();
+    }
+
+    public static long getWritten() {
+        return WRITTEN.sum();
+    }
+
+    // Single consumer, formats the next record into out, false when the ring is empty
+    private static boolean poll(StringBuilder out) {
+        int index = (int) head & MASK;
+        if (SEQUENCES.get(index) != head + 1) {
+            return false;
+        }
+        Entry entry = ENTRIES[index];
+        entry.format(out);
+        entry.clear();
+        SEQUENCES.set(index, head + CAPACITY);
+        head++;
+        return true;
+    }
+
+    private static final class Entry {
+        long timeMillis;
+        String event;
+        String lobbyId;
+        int round;
+        String playerId;
+        long latencyNanos;
+        String message;
+
+        void format(StringBuilder out) {
+            out.append("{\"ts\":\"").append(Instant.ofEpochMilli(timeMillis)).append('"');
+            out.append(",\"event\":");
+            Json.quote(out, event);
+            if (lobbyId != null) {
+                out.append(",\"lobby\":");
+                Json.quote(out, lobbyId);
+            }
+            if (round != NONE) {
+                out.append(",\"round\":").append(round);
+            }
+            if (playerId != null) {
+                out.append(",\"player\":");
+                Json.quote(out, playerId);
+            }
+            if (latencyNanos != NONE) {
+                out.append(",\"latency_ms\":").append(latencyNanos / 1_000_000.0);
+            }
+            if (message != null) {
+                out.append(",\"msg\":");
+                Json.quote(out, message);
+            }
+            out.append("}\n");
+        }
+
+        void clear() {
+            event = null;
+            lobbyId = null;
+            playerId = null;
+            message = null;
+        }
+    }
+
+    // Drains the ring in batches and rotates the file by size
+    private static final class Writer implements Runnable {
+        private final Path directory;
+        private final boolean console;
+        private final StringBuilder batch = new StringBuilder(64 * 1024);
+        private OutputStream file;
+        private long fileBytes;
+        private long droppedReported;
+
+        Writer(Path directory, boolean console) {
+            this.directory = directory;
+            this.console = console;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                if (!drain()) {
+                    LockSupport.parkNanos(FLUSH_INTERVAL * 1_000_000);
+                }
+            }
+        }
+
+        // true if anything was written
+        private synchronized boolean drain() {
+            int records = 0;
+            while (batch.length() < 32 * 1024 && poll(batch)) {
+                records++;
+            }
+            long dropped = DROPPED.sum();
+            if (dropped != droppedReported) {
+                batch.append("{\"ts\":\"").append(Instant.now()).append("\",\"event\":\"events_dropped\",\"count\":")
+                        .append(dropped - droppedReported).append("}\n");
+                droppedReported = dropped;
+            }
+            if (batch.length() == 0) {
+                return false;
+            }
+            write(batch.toString());
+            batch.setLength(0);
+            WRITTEN.add(records);
+            return true;
+        }
+
+        private void drainOnExit() {
+            while (drain()) {
+                // until empty
+            }
+            synchronized (this) {
+                try {
+                    if (file != null) file.flush();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void write(String text) {
+            if (console) {
+                System.out.print(text);
+            }
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            try {
+                if (file == null || fileBytes + bytes.length > MAX_FILE_BYTES) {
+                    rotate();
+                }
+                file.write(bytes);
+                file.flush();
+                fileBytes += bytes.length;
+            } catch (IOException e) {
+                // keep draining so the ring never backs up on a broken disk, the records are lost
+                System.err.println("Event log write failed: " + e.getMessage());
+                closeQuietly();
+            }
+        }
+
+        private void rotate() throws IOException {
+            closeQuietly();
+            Files.createDirectories(directory);
+            Path current = directory.resolve(FILE_NAME);
+            if (Files.exists(current) && Files.size(current) > 0) {
+                for (int i = MAX_FILES - 1; i >= 1; i--) {
+                    Path older = directory.resolve(FILE_NAME + "." + i);
+                    Path newer = i == 1 ? current : directory.resolve(FILE_NAME + "." + (i - 1));
+                    if (Files.exists(newer)) {
+                        Files.move(newer, older, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+            file = new BufferedOutputStream(Files.newOutputStream(current), 64 * 1024);
+            fileBytes = 0;
+        }
+
+        private void closeQuietly() {
+            if (file != null) {
+                try {
+                    file.close();
+                } catch (IOException ignored) {
+                }
+                file = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.wrd;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Time source and timers of a lobby's games. SYSTEM runs each game on its own thread that
+// sleeps on System.nanoTime; a simulation can drive lobbies on virtual time instead.
+public interface GameClock {
+    GameClock SYSTEM = new SystemGameClock();
+
+    long DONE = Long.MIN_VALUE; // returned by a game step when the game is over
+
+    long nanoTime();
+
+    // Server time in ms for a nanoTime of this clock, as sent on the wire
+    long toMillis(long nanoTime);
+
+    // Calls step now and again at each nanoTime deadline it returns, until it returns DONE.
+    // step must not throw, the lobby turns a failed step into a stopped game itself.
+    // Returns the thread running the steps, or null if the clock has none of its own.
+    Thread runSteps(String name, LongSupplier step);
+
+    // One-shot delayed tasks of one game, claim windows and the end-of-game kick
+    Timer newTimer(String name);
+
+    interface Timer {
+        void schedule(Runnable task, long delay, TimeUnit unit);
+
+        // Pending tasks are dropped, a running one finishes
+        void shutdown();
+    }
+}
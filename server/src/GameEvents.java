@@ -0,0 +1,89 @@
+package com.example.wrd;
+
+import jdk.jfr.*;
+
+// Flight recorder events for game-level activity. All of them are disabled unless a recording
+// turns them on (see wrd.jfc), a disabled event's begin/commit are no-ops and the JIT drops the
+// allocation, so the hot paths pay nothing for them in normal runs.
+final class GameEvents {
+    private GameEvents() {
+    }
+
+    enum ClaimOutcome { CLAIMED, ALREADY_CLAIMED, LATE, NOT_FOUND }
+
+    @Name("com.example.wrd.Round")
+    @Label("Round")
+    @Category({"Word Game", "Lobby"})
+    @Description("One round of a game, from NEW_WORD to the end of claims")
+    @Enabled(false)
+    static class Round extends Event {
+        @Label("Lobby")
+        String lobbyId;
+        @Label("Round Number")
+        int round;
+        @Label("Words")
+        int wordCount;
+        @Label("Active Players")
+        int activePlayers;
+        @Label("Words Claimed")
+        int wordsClaimed;
+    }
+
+    @Name("com.example.wrd.Claim")
+    @Label("Claim")
+    @Category({"Word Game", "Lobby"})
+    @Description("Outcome of one SUBMIT_ANSWER")
+    @Enabled(false)
+    @StackTrace(false)
+    static class Claim extends Event {
+        @Label("Lobby")
+        String lobbyId;
+        @Label("Round Number")
+        int round;
+        @Label("Player")
+        String player;
+        @Label("Answer")
+        String answer;
+        @Label("Outcome")
+        String outcome;
+    }
+
+    @Name("com.example.wrd.Broadcast")
+    @Label("Broadcast")
+    @Category({"Word Game", "Lobby"})
+    @Description("Fan-out of one message to every connection in a lobby")
+    @Enabled(false)
+    @StackTrace(false)
+    @Threshold("0 ms")
+    static class Broadcast extends Event {
+        @Label("Lobby")
+        String lobbyId;
+        @Label("Message Type")
+        String messageType;
+        @Label("Recipients")
+        int recipients;
+    }
+
+    @Name("com.example.wrd.PlayerMutexWait")
+    @Label("Player Mutex Wait")
+    @Category({"Word Game", "Lobby"})
+    @Description("Time spent waiting for a lobby's playerMutex")
+    @Enabled(false)
+    @Threshold("1 ms")
+    static class PlayerMutexWait extends Event {
+        @Label("Lobby")
+        String lobbyId;
+    }
+
+    static void claim(String lobbyId, int round, Player player, String answer, ClaimOutcome outcome) {
+        Claim event = new Claim();
+        if (event.shouldCommit()) {
+            event.lobbyId = lobbyId;
+            event.round = round;
+            event.player = player.getUsername();
+            event.answer = answer;
+            event.outcome = outcome.name();
+            event.commit();
+        }
+    }
+}
@@ -2,40 +2,89 @@ package com.example.wrd;
 
 import java.io.*;
 import java.net.*;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
 
 public class GameServer {
     private static final int PORT = 8888;
+    private static final int TELEMETRY_INTERVAL = 60; // seconds between telemetry log lines
+    private static final int PING_INTERVAL = 2000; // ms between heartbeats/RTT probes on every connection
+    private static final int IDLE_TIMEOUT = 15000; // ms without any inbound frame before a connection is reaped
+    private static final int SHED_LINGER = 1000; // ms a shed connection gets to read SERVER_BUSY before it is closed
+    private static final int THREADS_PER_CONNECTION = 2; // reader and writer, both from clientExecutor
+    private static final int SHED_THREADS = 2;
+    private static final int SHED_QUEUE = 256; // shed connections waiting for their SERVER_BUSY, beyond that they are just closed
 
+    private final ServerConfig config;
+    private final AdmissionControl admission;
     private ServerSocket serverSocket;
-    private final Map<String, Lobby> lobbies;
+    private final LobbyDirectory lobbyDirectory;
+    private final SessionRegistry sessions;
     private final ExecutorService clientExecutor;
+    private final ExecutorService shedExecutor;
+    private final ScheduledExecutorService maintenance;
+    private TypingChannel typingChannel;
+    private MetricsHttpServer metricsServer;
     private volatile boolean running;
 
-    public GameServer() {
-        lobbies = new ConcurrentHashMap<>();
-        clientExecutor = Executors.newCachedThreadPool();
+    public GameServer(ServerConfig config) {
+        this.config = config;
+        admission = new AdmissionControl(config);
+        lobbyDirectory = new LobbyDirectory();
+        sessions = new SessionRegistry();
+        // a reader and a writer thread per connection, bounded so a spike cannot exhaust threads
+        clientExecutor = new ThreadPoolExecutor(0, THREADS_PER_CONNECTION * config.maxConnections(), 60,
+                TimeUnit.SECONDS, new SynchronousQueue<>());
+        shedExecutor = new ThreadPoolExecutor(SHED_THREADS, SHED_THREADS, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(SHED_QUEUE));
+        maintenance = Executors.newSingleThreadScheduledExecutor();
         running = false;
     }
 
     public void start() {
         try {
-            serverSocket = new ServerSocket(PORT);
+            serverSocket = new ServerSocket(PORT, config.acceptBacklog());
             running = true;
+            EventLog.start(Paths.get(config.logDir()), config.logToConsole());
             System.out.println("Game Server started on port " + PORT);
 
-            for (int i = 1; i <= 3; i++) {
-                String lobbyId = "lobby" + i;
-                lobbies.put(lobbyId, new Lobby(lobbyId, "Lobby " + i));
+            typingChannel = TypingChannel.open(PORT);
+            if (typingChannel != null) {
+                new Thread(typingChannel, "TypingChannel").start();
+            }
+
+            maintenance.scheduleAtFixedRate(this::logTelemetry, TELEMETRY_INTERVAL, TELEMETRY_INTERVAL, TimeUnit.SECONDS);
+            maintenance.scheduleAtFixedRate(this::pingAll, PING_INTERVAL, PING_INTERVAL, TimeUnit.MILLISECONDS);
+            long pushInterval = 1000 / LobbyDirectory.PUSH_RATE;
+            maintenance.scheduleAtFixedRate(lobbyDirectory::publish, pushInterval, pushInterval, TimeUnit.MILLISECONDS);
+
+            for (int i = 1; i <= config.lobbyCount(); i++) {
+                lobbyDirectory.addLobby("lobby" + i, "Lobby " + i);
+            }
+
+            registerMetrics();
+            if (config.metricsPort() > 0) {
+                metricsServer = MetricsHttpServer.start(config.metricsPort(), new AdminApi(this));
             }
 
             while (running) {
                 try {
                     Socket clientSocket = serverSocket.accept();
-                    System.out.println("New client connected: " + clientSocket.getInetAddress());
+                    AdmissionControl.Reason shedReason = admission.admit(sessions.getConnectionCount());
+                    if (shedReason != null) {
+                        shed(clientSocket, shedReason);
+                        continue;
+                    }
+                    EventLog.log("client_connected", String.valueOf(clientSocket.getInetAddress()));
                     ClientHandler handler = new ClientHandler(clientSocket, this);
-                    clientExecutor.execute(handler);
+                    sessions.connectionOpened(handler);
+                    try {
+                        clientExecutor.execute(handler);
+                    } catch (RejectedExecutionException e) {
+                        sessions.connectionClosed(handler);
+                        shed(clientSocket, AdmissionControl.Reason.POOL_EXHAUSTED);
+                    }
                 } catch (IOException e) {
                     if (running) {
                         e.printStackTrace();
@@ -54,21 +103,216 @@ public class GameServer {
                 serverSocket.close();
             }
             clientExecutor.shutdown();
+            shedExecutor.shutdownNow();
+            maintenance.shutdownNow();
+            if (typingChannel != null) {
+                typingChannel.close();
+            }
+            if (metricsServer != null) {
+                metricsServer.stop();
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
-    public Map<String, Lobby> getLobbies() {
-        return lobbies;
+    // Turns a connection away with SERVER_BUSY off the accept thread. If even that backs up,
+    // the socket is closed without a reply.
+    private void shed(Socket socket, AdmissionControl.Reason reason) {
+        admission.recordShed(reason);
+        try {
+            shedExecutor.execute(() -> sendServerBusy(socket));
+        } catch (RejectedExecutionException e) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void sendServerBusy(Socket socket) {
+        try (socket) {
+            socket.setSoTimeout(SHED_LINGER);
+            ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeObject(new Message(MessageType.SERVER_BUSY, admission.retryAfterMillis()));
+            out.flush();
+            socket.shutdownOutput();
+            // drain until the client hangs up, closing with unread input would reset the
+            // connection and could destroy the frame before the client reads it
+            InputStream in = socket.getInputStream();
+            byte[] discard = new byte[512];
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHED_LINGER);
+            while (System.nanoTime() < deadline && in.read(discard) != -1) {
+                // keep draining
+            }
+        } catch (IOException e) {
+            // client gone or linger elapsed, nothing more to do
+        }
+    }
+
+    private void pingAll() {
+        long now = System.nanoTime();
+        long idleTimeout = TimeUnit.MILLISECONDS.toNanos(IDLE_TIMEOUT);
+        for (ClientHandler handler : sessions.getConnections()) {
+            if (handler.isIdle(now, idleTimeout)) {
+                handler.reap("idle");
+            } else {
+                handler.sendPing();
+                handler.checkUdpLiveness(now);
+            }
+        }
+    }
+
+    // Writer thread of an admitted connection, from the same bounded pool as its reader
+    public void startWriter(Runnable writeLoop) {
+        clientExecutor.execute(writeLoop);
+    }
+
+    // One-off task on the maintenance thread, dropped once the server is stopping
+    public void schedule(Runnable task, long delayNanos) {
+        try {
+            maintenance.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+        }
+    }
+
+    public SessionRegistry getSessions() {
+        return sessions;
+    }
+
+    private void registerMetrics() {
+        Metrics.gauge("wrd_connections", "", "Open client connections", sessions::getConnectionCount);
+        Metrics.gauge("wrd_players", "", "Logged-in players", sessions::getSessionCount);
+        Metrics.gauge("wrd_lobbies", "", "Lobbies", () -> lobbyDirectory.getLobbies().size());
+        Metrics.gauge("wrd_game_threads", "", "Lobbies with a running game thread",
+                () -> lobbyDirectory.getLobbies().stream().filter(Lobby::isGameActive).count());
+        Metrics.gauge("wrd_lobby_subscribers", "", "Connections subscribed to lobby list pushes",
+                lobbyDirectory::getSubscriberCount);
+        Metrics.counter("wrd_event_log_written_total", "", "Event log records written to disk", EventLog::getWritten);
+        Metrics.counter("wrd_event_log_dropped_total", "", "Event log records dropped because the ring was full",
+                EventLog::getDropped);
+        Metrics.counter("wrd_connections_admitted_total", "", "Connections admitted at accept time",
+                admission::getAdmitted);
+        for (AdmissionControl.Reason reason : AdmissionControl.Reason.values()) {
+            Metrics.counter("wrd_connections_shed_total", "reason=\"" + reason + "\"",
+                    "Connections turned away with SERVER_BUSY", () -> admission.getShed(reason));
+        }
+        registerSemaphoreMetrics();
+        for (MessageType type : MessageType.values()) {
+            Metrics.counter("wrd_rate_limit_violations_total", "type=\"" + type + "\"",
+                    "Inbound messages over their per-connection rate limit", () -> InboundLimiter.getViolations(type));
+        }
+    }
+
+    // Families are registered one after the other, the scrape groups samples by consecutive name
+    private void registerSemaphoreMetrics() {
+        Collection<Lobby> lobbies = lobbyDirectory.getLobbies();
+        for (Lobby lobby : lobbies) {
+            Metrics.counter("wrd_semaphore_acquires_total", semaphoreLabels(lobby, "playerMutex"),
+                    "Semaphore acquisitions", () -> lobby.getPlayerMutex().getStats().getAcquires());
+            Metrics.counter("wrd_semaphore_acquires_total", semaphoreLabels(lobby, "readyPlayers"),
+                    "Semaphore acquisitions", () -> lobby.getReadySemaphore().getStats().getAcquires());
+        }
+        for (Lobby lobby : lobbies) {
+            Metrics.counter("wrd_semaphore_contended_total", semaphoreLabels(lobby, "playerMutex"),
+                    "Semaphore acquisitions that had to queue", () -> lobby.getPlayerMutex().getStats().getContended());
+            Metrics.counter("wrd_semaphore_contended_total", semaphoreLabels(lobby, "readyPlayers"),
+                    "Semaphore acquisitions that had to queue", () -> lobby.getReadySemaphore().getStats().getContended());
+        }
+        for (Lobby lobby : lobbies) {
+            Metrics.gauge("wrd_semaphore_queue_length", semaphoreLabels(lobby, "playerMutex"),
+                    "Threads waiting on the semaphore", () -> lobby.getPlayerMutex().getQueueLength());
+            Metrics.gauge("wrd_semaphore_queue_length", semaphoreLabels(lobby, "readyPlayers"),
+                    "Threads waiting on the semaphore", () -> lobby.getReadySemaphore().getQueueLength());
+        }
+        for (Lobby lobby : lobbies) {
+            Metrics.gauge("wrd_semaphore_held", semaphoreLabels(lobby, "playerMutex"),
+                    "1 while a thread holds the semaphore", () -> lobby.getPlayerMutex().getHolder() != null ? 1 : 0);
+        }
+        for (Lobby lobby : lobbies) {
+            Metrics.summary("wrd_semaphore_wait_seconds", semaphoreLabels(lobby, "playerMutex"),
+                    "Time queued in P(), contended acquisitions only", lobby.getPlayerMutex().getStats().getWaitNanos(), 1e-9);
+            Metrics.summary("wrd_semaphore_wait_seconds", semaphoreLabels(lobby, "readyPlayers"),
+                    "Time queued in P(), contended acquisitions only", lobby.getReadySemaphore().getStats().getWaitNanos(), 1e-9);
+        }
+        for (Lobby lobby : lobbies) {
+            Metrics.summary("wrd_semaphore_hold_seconds", semaphoreLabels(lobby, "playerMutex"),
+                    "Time from P() to V()", lobby.getPlayerMutex().getStats().getHoldNanos(), 1e-9);
+        }
+        registerRttMetrics(lobbies);
+    }
+
+    // Spread of the smoothed RTTs in each lobby, the same RttSummary the telemetry log shows
+    private void registerRttMetrics(Collection<Lobby> lobbies) {
+        for (Lobby lobby : lobbies) {
+            Metrics.gauge("wrd_lobby_rtt_connections", "lobby=\"" + lobby.getId() + "\"",
+                    "Connections in the lobby with an RTT measurement", () -> lobby.getRttSummary().connections());
+        }
+        for (Lobby lobby : lobbies) {
+            String lobbyLabel = "lobby=\"" + lobby.getId() + "\",quantile=";
+            String help = "Smoothed connection RTT across the lobby by quantile";
+            Metrics.gauge("wrd_lobby_rtt_microseconds", lobbyLabel + "\"0.5\"", help,
+                    () -> (long) (lobby.getRttSummary().p50Ms() * 1000));
+            Metrics.gauge("wrd_lobby_rtt_microseconds", lobbyLabel + "\"0.9\"", help,
+                    () -> (long) (lobby.getRttSummary().p90Ms() * 1000));
+            Metrics.gauge("wrd_lobby_rtt_microseconds", lobbyLabel + "\"0.99\"", help,
+                    () -> (long) (lobby.getRttSummary().p99Ms() * 1000));
+            Metrics.gauge("wrd_lobby_rtt_microseconds", lobbyLabel + "\"1.0\"", help,
+                    () -> (long) (lobby.getRttSummary().maxMs() * 1000));
+        }
+    }
+
+    private static String semaphoreLabels(Lobby lobby, String semaphore) {
+        return "lobby=\"" + lobby.getId() + "\",semaphore=\"" + semaphore + "\"";
+    }
+
+    // Through the EventLog ring like every other record, the maintenance thread never blocks on stdout
+    private void logTelemetry() {
+        EventLog.log("telemetry_connections", "connections=" + sessions.getConnectionCount() +
+                " players=" + sessions.getSessionCount() + " lobbySubscribers=" + lobbyDirectory.getSubscriberCount() +
+                " admission=" + admission);
+        EventLog.log("telemetry_rate_limits", InboundLimiter.violationSummary());
+        for (OutboundQueue.Priority priority : OutboundQueue.Priority.values()) {
+            LatencyStats latency = OutboundQueue.latency(priority);
+            EventLog.log("telemetry_outbound_latency", null, EventLog.NONE, null, latency.getMaxNanos(),
+                    priority + " " + latency);
+        }
+        for (Lobby lobby : lobbyDirectory.getLobbies()) {
+            RttSummary rtt = lobby.getRttSummary();
+            if (rtt.connections() > 0) {
+                EventLog.log("telemetry_rtt", lobby.getId(), EventLog.NONE, null,
+                        (long) (rtt.p50Ms() * 1_000_000), rtt.toString());
+            }
+            BinarySemaphore playerMutex = lobby.getPlayerMutex();
+            if (playerMutex.getStats().getContended() > 0) {
+                Thread holder = playerMutex.getHolder();
+                EventLog.log("telemetry_player_mutex", lobby.getId(), EventLog.NONE, null,
+                        playerMutex.getStats() + " queued=" + playerMutex.getQueueLength() +
+                                " holder=" + (holder != null ? holder.getName() : "none"));
+            }
+        }
+    }
+
+    public AdmissionControl getAdmission() {
+        return admission;
+    }
+
+    public LobbyDirectory getLobbyDirectory() {
+        return lobbyDirectory;
+    }
+
+    // null when UDP could not be bound
+    public TypingChannel getTypingChannel() {
+        return typingChannel;
     }
 
     public Lobby getLobby(String lobbyId) {
-        return lobbies.get(lobbyId);
+        return lobbyDirectory.getLobby(lobbyId);
     }
 
     public static void main(String[] args) {
-        GameServer server = new GameServer();
+        GameServer server = new GameServer(ServerConfig.fromSystemProperties());
         server.start();
     }
 }
\ No newline at end of file
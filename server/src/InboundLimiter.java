@@ -0,0 +1,84 @@
+package com.example.wrd;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-connection token buckets on inbound messages, checked before anything reaches a Lobby.
+// Each message over its type's budget is a violation; a connection that keeps violating
+// faster than the strike bucket refills gets disconnected.
+public class InboundLimiter {
+    public enum Verdict { ALLOW, OVER_LIMIT, DISCONNECT }
+
+    private static final double STRIKE_RATE = 5; // violations per second forgiven
+    private static final double MAX_STRIKES = 100; // violations in a row before the connection is closed
+
+    // {messages per second, burst} for the types a client could use to load the server;
+    // everything else is unlimited
+    private static final Map<MessageType, double[]> LIMITS = new EnumMap<>(MessageType.class);
+    static {
+        LIMITS.put(MessageType.TYPING_UPDATE, new double[]{30, 30}); // the app throttles itself to 20/s
+        LIMITS.put(MessageType.SUBMIT_ANSWER, new double[]{5, 5});
+        LIMITS.put(MessageType.GET_LOBBIES, new double[]{5, 10});
+        LIMITS.put(MessageType.REQUEST_PLAYER_LIST, new double[]{1, 3}); // each one is a lobby-wide broadcast
+        LIMITS.put(MessageType.TYPING_RESYNC, new double[]{10, 10});
+        LIMITS.put(MessageType.SUBSCRIBE_LOBBIES, new double[]{2, 5});
+        LIMITS.put(MessageType.JOIN_LOBBY, new double[]{2, 5});
+        LIMITS.put(MessageType.TIME_SYNC, new double[]{5, 10});
+    }
+
+    // server-wide violations per message type
+    private static final LongAdder[] VIOLATIONS = new LongAdder[MessageType.values().length];
+    static {
+        for (int i = 0; i < VIOLATIONS.length; i++) {
+            VIOLATIONS[i] = new LongAdder();
+        }
+    }
+
+    private final Map<MessageType, TokenBucket> buckets = new EnumMap<>(MessageType.class);
+    private final TokenBucket strikes = new TokenBucket(STRIKE_RATE, MAX_STRIKES);
+    private final LongAdder violations = new LongAdder();
+
+    public InboundLimiter() {
+        for (Map.Entry<MessageType, double[]> limit : LIMITS.entrySet()) {
+            buckets.put(limit.getKey(), new TokenBucket(limit.getValue()[0], limit.getValue()[1]));
+        }
+    }
+
+    // Safe to call from the reader and the UDP thread at once, the buckets synchronize
+    public Verdict check(MessageType type, long nowNanos) {
+        TokenBucket bucket = buckets.get(type);
+        if (bucket == null || bucket.tryAcquire(nowNanos)) {
+            return Verdict.ALLOW;
+        }
+        violations.increment();
+        VIOLATIONS[type.ordinal()].increment();
+        return strikes.tryAcquire(nowNanos) ? Verdict.OVER_LIMIT : Verdict.DISCONNECT;
+    }
+
+    // When the next message of this type would be within budget again, 0 if it is now
+    public long nanosUntilAllowed(MessageType type, long nowNanos) {
+        TokenBucket bucket = buckets.get(type);
+        return bucket == null ? 0 : bucket.nanosUntilToken(nowNanos);
+    }
+
+    public long getViolations() {
+        return violations.sum();
+    }
+
+    public static long getViolations(MessageType type) {
+        return VIOLATIONS[type.ordinal()].sum();
+    }
+
+    // Non-zero server-wide violation counts, for telemetry
+    public static String violationSummary() {
+        StringBuilder sb = new StringBuilder();
+        for (MessageType type : MessageType.values()) {
+            long count = getViolations(type);
+            if (count > 0) {
+                sb.append(sb.length() == 0 ? "" : ", ").append(type).append('=').append(count);
+            }
+        }
+        return sb.length() == 0 ? "none" : sb.toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.wrd;
+
+// Just enough JSON writing for the event log and the admin endpoint, no parsing
+final class Json {
+    private Json() {}
+
+    static StringBuilder quote(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("null");
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"');
+    }
+
+    // ,"name": ahead of a value, the caller writes the opening brace and the first field
+    static StringBuilder field(StringBuilder out, String name) {
+        out.append(',');
+        return quote(out, name).append(':');
+    }
+}
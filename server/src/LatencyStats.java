@@ -0,0 +1,33 @@
+package com.example.wrd;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free count/mean/max of a latency, cheap enough to record on every message
+public class LatencyStats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public long getCount() { return count.sum(); }
+    public long getMaxNanos() { return maxNanos.get(); }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / (n * 1_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2fms max=%.2fms", getCount(), getMeanMillis(), getMaxNanos() / 1_000_000.0);
+    }
+}
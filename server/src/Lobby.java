@@ -4,61 +4,93 @@ import java.util.*;
 import java.util.concurrent.*;
 
 public class Lobby {
-    private static final int MAX_PLAYERS = 8;
+    // Game rules, public so the bench's invariant checker follows them instead of copying them
+    public static final int MAX_PLAYERS = 8;
     private static final int MIN_PLAYERS_TO_START = 2;
-    private static final int WORD_TIMEOUT = 13000; // 13 seconds
-    private static final int REST_TIMEOUT = 5000; // 5 seconds
-    private static final int MAX_MISSES = 2;
-    private static final int MAX_ROUNDS = 16; // Game ends after 16 rounds
-    private static final int GAME_END_DELAY = 10000; // 10 seconds before kicking players
-    private static final int GAME_START_COUNTDOWN = 3; // 3 seconds countdown before game starts
+    public static final int WORD_TIMEOUT = 13000; // 13 seconds
+    public static final int REST_TIMEOUT = 5000; // 5 seconds
+    public static final int MAX_MISSES = 2;
+    public static final int MAX_ROUNDS = 16; // Game ends after 16 rounds
+    public static final int GAME_END_DELAY = 10000; // 10 seconds before kicking players
+    public static final int GAME_START_COUNTDOWN = 3; // 3 seconds countdown before game starts
+    public static final int MS_PER_POINT = 10; // a claim scores the ms left in its round divided by this
+    private static final int MAX_TYPO_TAIL = 3; // characters a player may type past the last matching prefix
+    private static final int ARBITRATION_WINDOW = 50; // ms that competing claims for one word are collected
+    private static final long MAX_LAG_COMPENSATION = 150; // ms, caps the half-RTT credit a claim can get
+    private static final int MAX_CLAIM_AUDIT = 200; // arbitration decisions kept for auditing
+
+    public enum Phase { WAITING, COUNTDOWN, ROUND, REST, GAME_OVER, STOPPED }
 
     // Binary semaphore for mutual exclusion
     private final BinarySemaphore playerMutex = new BinarySemaphore(true);
 
     private final String id;
     private final String name;
-    private final Map<String, Player> players;
-    private final Map<String, ClientHandler> clientHandlers;
+    private final LobbyDirectory directory;
+    private final int capacity;
+    // players and their connections indexed by slot, guarded by playerMutex
+    private final Player[] players;
+    private final ClientHandler[] clientHandlers;
+    private volatile int playerCount; // written under playerMutex, read lock-free
     private volatile boolean gameActive;
-    private Thread gameThreadRunner;
-    private GameThread gameThread;
+    private volatile boolean draining; // set by an operator, joins are refused until reopened
+    private volatile Thread gameThreadRunner;
+    private volatile GameThread gameThread;
     private final WordGenerator wordGenerator;
+    private final GameClock clock;
 
     // CountingSemaphore for tracking ready players
     private final CountingSemaphore readyPlayerSemaphore = new CountingSemaphore(0);
 
-    // Scheduler for delayed kick
-    private ScheduledExecutorService scheduler;
+    // Claim windows and the delayed kick, one per game
+    private GameClock.Timer timer;
 
-    public Lobby(String id, String name) {
+    // Most recent claim arbitration decisions, oldest first
+    private final Deque<ClaimDecision> claimAudit = new ArrayDeque<>();
+
+    public Lobby(String id, String name, LobbyDirectory directory) {
+        this(id, name, directory, MAX_PLAYERS);
+    }
+
+    // Capacities above MAX_PLAYERS are for benchmarks, clients only render MAX_PLAYERS seats
+    public Lobby(String id, String name, LobbyDirectory directory, int capacity) {
+        this(id, name, directory, capacity, GameClock.SYSTEM, new WordGenerator());
+    }
+
+    // Simulations pass a virtual clock and a seeded word generator
+    public Lobby(String id, String name, LobbyDirectory directory, int capacity, GameClock clock,
+                 WordGenerator wordGenerator) {
         this.id = id;
         this.name = name;
-        this.players = new ConcurrentHashMap<>();
-        this.clientHandlers = new ConcurrentHashMap<>();
+        this.directory = directory;
+        this.capacity = capacity;
+        this.players = new Player[capacity];
+        this.clientHandlers = new ClientHandler[capacity];
         this.gameActive = false;
-        this.wordGenerator = new WordGenerator();
+        this.clock = clock;
+        this.wordGenerator = wordGenerator;
     }
 
     public boolean addPlayer(Player player, ClientHandler handler) {
         // Acquire mutex to modify players/clientHandlers safely
-        playerMutex.P();
+        lockPlayers();
         try {
-            if (players.size() >= MAX_PLAYERS || gameActive) {
+            int slot = freeSlot();
+            // a second join from the same player would give it two seats
+            if (slot == Player.NO_SLOT || gameActive || draining || isSeated(player)) {
                 return false;
             }
-            players.put(player.getId(), player);
-            clientHandlers.put(player.getId(), handler);
+            players[slot] = player;
+            clientHandlers[slot] = handler;
+            playerCount++;
 
             // initialize player fields
-            player.setReady(false);
-            player.setCurrentTypedText("");
-            player.setScore(0);
-            player.setMissCount(0);
-            player.setEliminated(false);
+            player.resetForGame();
+            player.setSlot(slot);
         } finally {
             playerMutex.V();
         }
+        directory.lobbyChanged(this);
         broadcastPlayerList();
         return true;
     }
@@ -66,9 +98,9 @@ public class Lobby {
     public void setPlayerReady(Player player) {
         boolean shouldStart = false;
 
-        playerMutex.P();
+        lockPlayers();
         try {
-            if (gameActive || !players.containsKey(player.getId())) {
+            if (gameActive || !isSeated(player)) {
                 return;
             }
 
@@ -76,11 +108,12 @@ public class Lobby {
                 player.setReady(true);
                 readyPlayerSemaphore.V(); // Increment ready count
                 int currentReady = readyPlayerSemaphore.getValue();
-                System.out.println("Player " + player.getUsername() + " ready. Total ready: " + currentReady + "/" + players.size());
+                EventLog.log("player_ready", id, EventLog.NONE, player.getId(),
+                        player.getUsername() + " ready, " + currentReady + "/" + playerCount);
             }
 
             // determine whether we should start game
-            int totalPlayers = players.size();
+            int totalPlayers = playerCount;
             int readyCount = readyPlayerSemaphore.getValue();
             if (totalPlayers >= MIN_PLAYERS_TO_START && readyCount == totalPlayers && !gameActive) {
                 shouldStart = true;
@@ -102,23 +135,31 @@ public class Lobby {
         boolean shouldStartAfterRemoval = false;
 
         // Acquire mutex to mutate structures safely
-        playerMutex.P();
+        lockPlayers();
         try {
-            // If player was ready, decrement ready count
+            if (!isSeated(player)) {
+                return;
+            }
+
+            // If player was ready, decrement ready count. Never blocks under the mutex: a zero
+            // count here means it was already reset, and there is nothing to take back.
             if (player.isReady()) {
-                readyPlayerSemaphore.P(); // Decrement ready count
+                readyPlayerSemaphore.tryP();
             }
 
-            // Remove from maps
-            players.remove(player.getId());
-            clientHandlers.remove(player.getId());
+            // Free the slot, it can be handed to the next player that joins
+            int slot = player.getSlot();
+            players[slot] = null;
+            clientHandlers[slot] = null;
+            playerCount--;
+            player.setSlot(Player.NO_SLOT);
 
             // After removal, decide if game must stop
-            if (players.isEmpty() && gameActive) {
+            if (playerCount == 0 && gameActive) {
                 shouldStop = true;
             } else {
                 // Check if remaining players are all ready and can start the game
-                int totalPlayers = players.size();
+                int totalPlayers = playerCount;
                 int readyCount = readyPlayerSemaphore.getValue();
                 if (totalPlayers >= MIN_PLAYERS_TO_START && readyCount == totalPlayers && !gameActive) {
                     shouldStartAfterRemoval = true;
@@ -128,6 +169,8 @@ public class Lobby {
             playerMutex.V();
         }
 
+        directory.lobbyChanged(this);
+
         // Broadcast outside mutex
         broadcastPlayerList();
 
@@ -140,84 +183,154 @@ public class Lobby {
 
     public void startGame() {
         // Acquire mutex so we can safely initialize player states
-        playerMutex.P();
+        lockPlayers();
         try {
-            if (gameActive || players.size() < MIN_PLAYERS_TO_START) {
+            // the last game's players are sent back to the lobby list before another one starts
+            GameThread previous = gameThread;
+            if (gameActive || playerCount < MIN_PLAYERS_TO_START ||
+                    (previous != null && previous.phase == Phase.GAME_OVER)) {
                 return;
             }
 
             gameActive = true;
 
-            scheduler = Executors.newSingleThreadScheduledExecutor();
+            timer = clock.newTimer("GameTimer-" + id);
 
-            for (Player player : players.values()) {
-                player.setScore(0);
-                player.setMissCount(0);
-                player.setEliminated(false);
-                player.setCurrentTypedText("");
-                player.setReady(false);
-                player.setAnsweredCurrentRound(false);
+            for (Player player : seatedPlayers()) {
+                player.resetForGame();
             }
 
             readyPlayerSemaphore.reset(0); // Reset ready count for next game
 
             gameThread = new GameThread();
-            gameThreadRunner = new Thread(gameThread, "GameThread-" + id);
-            gameThreadRunner.start();
+            gameThreadRunner = clock.runSteps("GameThread-" + id, gameThread::step);
         } finally {
             playerMutex.V();
         }
+        directory.lobbyChanged(this);
+        // the reset views carry the bumped typing sequences, clients take them over instead of
+        // seeing a gap for every other player and each asking for a resync
+        broadcastPlayerList();
     }
 
     public void stopGame() {
-        // We set flags and stop the thread
-        if (!gameActive) return;
+        GameThread gt;
+        Thread runner;
+        GameClock.Timer gameTimer;
+        // Check and clear the flag under mutex, so a game that is ending on its own or a second
+        // stopGame() cannot end it twice, and a game started after this one is left alone
+        lockPlayers();
+        try {
+            if (!gameActive) return;
+            gameActive = false;
+            gt = gameThread;
+            runner = gameThreadRunner;
+            gameTimer = timer;
+            // queued before the mutex is released, so it cannot arrive after the start of a game
+            // that begins right after. sendMessage only enqueues, no socket I/O under the lock.
+            sendMessage(seatedHandlers(), new Message(MessageType.GAME_ENDED, null));
+        } finally {
+            playerMutex.V();
+        }
+        directory.lobbyChanged(this);
 
         // stop game thread
-        gameActive = false;
-        if (gameThread != null) {
-            gameThread.stop();
+        if (gt != null) {
+            gt.stop();
         }
-        if (gameThreadRunner != null && gameThreadRunner.isAlive()) {
-            gameThreadRunner.interrupt();
+        if (runner != null && runner.isAlive()) {
+            runner.interrupt();
         }
 
-        // Broadcast outside locks
-        broadcastMessage(new Message(MessageType.GAME_ENDED, null));
-
-        // shutdown scheduler to avoid thread leak
-        scheduler.shutdownNow();
+        // shutdown timer to avoid thread leak
+        gameTimer.shutdown();
     }
 
     // Kick all players from lobby
     private void kickAllPlayers() {
-        System.out.println("Kicking all players from lobby " + id);
-
-        // Send leave message to all players
-        broadcastMessage(new Message(MessageType.LEAVE_LOBBY_SUCCESS, null));
+        EventLog.log("lobby_kick_all", id, EventLog.NONE, null, null);
 
-        // Clear players and handlers
-        playerMutex.P();
+        // Clear players and handlers and tell exactly the players that were removed, in one
+        // critical section. A join between the message and the clear would be dropped without
+        // being told, and a rejoin must not be overtaken by this message.
+        GameClock.Timer gameTimer;
+        lockPlayers();
         try {
-            players.clear();
-            clientHandlers.clear();
+            List<ClientHandler> removed = seatedHandlers();
+            for (ClientHandler handler : removed) {
+                handler.leftLobby(this);
+            }
+            sendMessage(removed, new Message(MessageType.LEAVE_LOBBY_SUCCESS, null));
+            for (Player player : seatedPlayers()) {
+                player.setSlot(Player.NO_SLOT);
+            }
+            Arrays.fill(players, null);
+            Arrays.fill(clientHandlers, null);
+            playerCount = 0;
             readyPlayerSemaphore.reset(0);
+            if (!gameActive) {
+                gameThread = null;
+                gameThreadRunner = null;
+            }
+            // read before the next game can replace it
+            gameTimer = timer;
         } finally {
             playerMutex.V();
         }
 
-        System.out.println("All players kicked from lobby " + id);
+        directory.lobbyChanged(this);
+        EventLog.log("lobby_cleared", id, EventLog.NONE, null, null);
+
+        // ensure timer not leaking
+        if (gameTimer != null) {
+            gameTimer.shutdown();
+        }
+    }
+
+    // Operator action: ends any running game, sends everyone back to the lobby list and
+    // refuses joins until reopen()
+    public void drain() {
+        draining = true;
+        EventLog.log("lobby_drain", id, EventLog.NONE, null, null);
+        stopGame();
+        kickAllPlayers();
+    }
+
+    public void reopen() {
+        draining = false;
+        EventLog.log("lobby_reopen", id, EventLog.NONE, null, null);
+    }
+
+    // Operator action: ends the running game without a winner, players stay in the lobby
+    public void forceEndGame() {
+        EventLog.log("game_force_end", id, EventLog.NONE, null, null);
+        stopGame();
+    }
 
-        // ensure scheduler not leaking
-        scheduler.shutdownNow();
+    // Built from volatile fields and unlocked reads of the slot arrays, so it never waits on
+    // playerMutex or the game thread. A lobby in flux may show a slightly stale view.
+    public LobbyStatus status() {
+        GameThread gt = gameThread;
+        Thread runner = gameThreadRunner;
+        List<PlayerView> seated = new ArrayList<>();
+        for (Player player : players) {
+            if (player != null) {
+                seated.add(player.view());
+            }
+        }
+        Thread holder = playerMutex.getHolder();
+        return new LobbyStatus(id, name, gt == null ? Phase.WAITING : gt.phase, gt == null ? 0 : gt.roundNumber,
+                gameActive, draining, playerCount, readyPlayerSemaphore.getValue(), seated,
+                runner == null ? null : runner.getName(), runner == null ? null : runner.getState(),
+                playerMutex.getQueueLength(), holder == null ? null : holder.getName());
     }
 
     public void broadcastPlayerList() {
-        Player[] playerArray;
-        // snapshot players under mutex
-        playerMutex.P();
+        PlayerView[] playerArray;
+        // snapshot the players' current views under mutex, the views themselves are immutable
+        lockPlayers();
         try {
-            playerArray = players.values().toArray(new Player[0]);
+            playerArray = seatedPlayers().stream().map(Player::view).toArray(PlayerView[]::new);
         } finally {
             playerMutex.V();
         }
@@ -226,23 +339,57 @@ public class Lobby {
         broadcastMessage(message);
     }
 
-    public void broadcastTypingUpdate(Player player) {
-        Message message = new Message(MessageType.TYPING_UPDATE, player);
-        broadcastMessage(message);
+    // Validates a typing update against the current round before fanning it out
+    public void updateTyping(Player player, String typedText) {
+        GameThread gt = gameThread;
+        if (typedText == null || !gameActive || gt == null || !gt.acceptTyping(player, typedText)) {
+            return;
+        }
+        TypingDelta delta = player.updateTypedText(typedText);
+        if (delta == null) {
+            return;
+        }
+        Message message = new Message(MessageType.TYPING_UPDATE, delta);
+        GameEvents.Broadcast event = new GameEvents.Broadcast();
+        event.begin();
+        long start = System.nanoTime();
+        List<ClientHandler> handlers = snapshotHandlers();
+        for (ClientHandler handler : handlers) {
+            try {
+                handler.sendTypingUpdate(message, typedText);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        Metrics.recordBroadcast(MessageType.TYPING_UPDATE, System.nanoTime() - start);
+        commitBroadcast(event, MessageType.TYPING_UPDATE, handlers.size());
     }
 
-    public void broadcastMessage(Message message) {
-        List<ClientHandler> snapshot;
-        // snapshot handlers under mutex to avoid concurrent changes while iterating
-        playerMutex.P();
+    // Full text of one player for a client that saw a gap in that player's edits
+    public void sendTypingSnapshot(ClientHandler handler, int slot) {
+        Player player;
+        lockPlayers();
         try {
-            snapshot = new ArrayList<>(clientHandlers.values());
+            player = slot >= 0 && slot < capacity ? players[slot] : null;
         } finally {
             playerMutex.V();
         }
+        if (player != null) {
+            handler.sendMessage(new Message(MessageType.TYPING_UPDATE, player.typingSnapshot()));
+        }
+    }
 
-        // send outside mutex (network I/O should not run under internal locks)
-        for (ClientHandler handler : snapshot) {
+    public void broadcastMessage(Message message) {
+        sendMessage(snapshotHandlers(), message);
+    }
+
+    // Handlers only enqueue, each connection's writer thread does the network I/O, so this
+    // may run under playerMutex when the order against the next game matters
+    private void sendMessage(List<ClientHandler> handlers, Message message) {
+        GameEvents.Broadcast event = new GameEvents.Broadcast();
+        event.begin();
+        long start = System.nanoTime();
+        for (ClientHandler handler : handlers) {
             try {
                 handler.sendMessage(message);
             } catch (Exception e) {
@@ -250,9 +397,82 @@ public class Lobby {
                 e.printStackTrace();
             }
         }
+        Metrics.recordBroadcast(message.getType(), System.nanoTime() - start);
+        commitBroadcast(event, message.getType(), handlers.size());
+    }
+
+    private void commitBroadcast(GameEvents.Broadcast event, MessageType type, int recipients) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.lobbyId = id;
+            event.messageType = type.name();
+            event.recipients = recipients;
+            event.commit();
+        }
     }
 
-    public void submitAnswer(Player player, String answer) {
+    private List<ClientHandler> snapshotHandlers() {
+        // snapshot handlers under mutex to avoid concurrent changes while iterating
+        lockPlayers();
+        try {
+            return seatedHandlers();
+        } finally {
+            playerMutex.V();
+        }
+    }
+
+    // Caller holds playerMutex
+    private List<ClientHandler> seatedHandlers() {
+        List<ClientHandler> handlers = new ArrayList<>(playerCount);
+        for (ClientHandler handler : clientHandlers) {
+            if (handler != null) {
+                handlers.add(handler);
+            }
+        }
+        return handlers;
+    }
+
+    // playerMutex.P(), with the wait reported to flight recordings
+    private void lockPlayers() {
+        GameEvents.PlayerMutexWait event = new GameEvents.PlayerMutexWait();
+        event.begin();
+        playerMutex.P();
+        event.end();
+        if (event.shouldCommit()) {
+            event.lobbyId = id;
+            event.commit();
+        }
+    }
+
+    // Lowest free slot, or NO_SLOT when the lobby is full. Caller holds playerMutex.
+    private int freeSlot() {
+        for (int slot = 0; slot < capacity; slot++) {
+            if (players[slot] == null) {
+                return slot;
+            }
+        }
+        return Player.NO_SLOT;
+    }
+
+    // Caller holds playerMutex
+    private boolean isSeated(Player player) {
+        int slot = player.getSlot();
+        return slot >= 0 && slot < capacity && players[slot] == player;
+    }
+
+    // Seated players in slot order. Caller holds playerMutex.
+    private List<Player> seatedPlayers() {
+        List<Player> seated = new ArrayList<>(playerCount);
+        for (Player player : players) {
+            if (player != null) {
+                seated.add(player);
+            }
+        }
+        return seated;
+    }
+
+    // receivedNanos is when the frame came off the socket, rttNanos the sender's smoothed RTT
+    public void submitAnswer(Player player, String answer, long receivedNanos, long rttNanos) {
         if (!gameActive || player.isEliminated()) {
             return;
         }
@@ -260,141 +480,335 @@ public class Lobby {
         // forward to game thread if running
         GameThread gt = gameThread;
         if (gt != null) {
-            gt.checkAnswer(player, answer);
+            gt.checkAnswer(player, answer, receivedNanos, rttNanos);
+        }
+    }
+
+    // Spread of the smoothed RTTs of everyone in the lobby, for telemetry
+    public RttSummary getRttSummary() {
+        return RttSummary.of(snapshotHandlers().stream()
+                .filter(handler -> handler.getRtt().hasSamples())
+                .mapToLong(handler -> handler.getRtt().getSmoothedNanos())
+                .toArray());
+    }
+
+    public List<ClaimDecision> getClaimAudit() {
+        synchronized (claimAudit) {
+            return new ArrayList<>(claimAudit);
+        }
+    }
+
+    private void recordClaimDecision(ClaimDecision decision) {
+        synchronized (claimAudit) {
+            if (claimAudit.size() >= MAX_CLAIM_AUDIT) {
+                claimAudit.pollFirst();
+            }
+            claimAudit.addLast(decision);
+        }
+        if (decision.candidates().size() > 1) {
+            EventLog.log("claim_contested", id, decision.round(), null, decision.toString());
         }
     }
 
     // Getters
     public String getId() { return id; }
     public String getName() { return name; }
-    public int getPlayerCount() {
-        playerMutex.P();
-        try {
-            return players.size();
-        } finally {
-            playerMutex.V();
-        }
-    }
-    public int getMaxPlayers() { return MAX_PLAYERS; }
+    public int getPlayerCount() { return playerCount; }
+    public int getMaxPlayers() { return capacity; }
     public boolean isGameActive() { return gameActive; }
+    public boolean isDraining() { return draining; }
+    BinarySemaphore getPlayerMutex() { return playerMutex; }
+    CountingSemaphore getReadySemaphore() { return readyPlayerSemaphore; }
 
-    // Inner class for game logic
-    private class GameThread implements Runnable {
+    // Game logic as a state machine: step() runs one transition and returns the clock
+    // deadline for the next one, so the same game runs on a thread or on virtual time
+    private class GameThread {
         private volatile boolean running;
         private WordRound currentWordRound;
-        private long roundStartTime;
-        private int roundNumber;
+        private volatile RoundTyping roundTyping;
+        private long roundStartNanos;
+        private long roundDeadlineNanos;
+        private volatile long newWordSentNanos; // when the current round's NEW_WORD was fanned out
+        private GameEvents.Round roundEvent;
+        private int activePlayerCount; // at the start of the current round
+        private volatile int roundNumber;
+        private volatile Phase phase = Phase.COUNTDOWN;
+        private int countdown = GAME_START_COUNTDOWN;
+        private long countdownEnd;
+        // claim windows of the current round, guarded by this GameThread's monitor
+        private boolean claimsOpen;
+        private final Map<Integer, ClaimWindow> openWindows = new HashMap<>();
+        private final boolean[] pendingClaimants = new boolean[capacity]; // by slot
 
         public GameThread() {
             this.running = true;
             this.roundNumber = 0;
         }
 
-        @Override
-        public void run() {
+        // A step that throws ends the game like stopGame(), otherwise the runner would die with
+        // gameActive stuck and the lobby could never start another one
+        long step() {
             try {
-                // Countdown before game starts
-                for (int i = GAME_START_COUNTDOWN; i > 0; i--) {
-                    broadcastMessage(new Message(MessageType.GAME_STARTING, i));
-                    Thread.sleep(1000);
+                return nextStep();
+            } catch (RuntimeException e) {
+                EventLog.log("game_failed", id, roundNumber, null, e.toString());
+                e.printStackTrace();
+                stopGame();
+                return GameClock.DONE;
+            }
+        }
+
+        private long nextStep() {
+            if (!running) {
+                return GameClock.DONE;
+            }
+            switch (phase) {
+                case COUNTDOWN:
+                    return countdownTick();
+                case ROUND:
+                    return finishRound();
+                case REST:
+                    return startRound();
+                default:
+                    return GameClock.DONE;
+            }
+        }
+
+        // Countdown before game starts, ticks are absolute so they don't drift
+        private long countdownTick() {
+            if (countdown == GAME_START_COUNTDOWN) {
+                countdownEnd = clock.nanoTime();
+            }
+            if (countdown > 0) {
+                broadcastMessage(new Message(MessageType.GAME_STARTING, countdown));
+                countdown--;
+                countdownEnd += TimeUnit.SECONDS.toNanos(1);
+                return countdownEnd;
+            }
+            broadcastMessage(new Message(MessageType.GAME_STARTED, null));
+            return startRound();
+        }
+
+        private long startRound() {
+            roundNumber++;
+
+            // Count active players to determine how many words to generate
+            lockPlayers();
+            try {
+                if (!isCurrent()) {
+                    return GameClock.DONE;
                 }
-                broadcastMessage(new Message(MessageType.GAME_STARTED, null));
-
-                while (running && gameActive) {
-                    roundNumber++;
-
-                    // Count active players to determine how many words to generate
-                    int activePlayerCount;
-                    playerMutex.P();
-                    try {
-                        activePlayerCount = (int) players.values().stream()
-                                .filter(p -> !p.isEliminated())
-                                .count();
-                    } finally {
-                        playerMutex.V();
-                    }
+                activePlayerCount = (int) seatedPlayers().stream()
+                        .filter(p -> !p.isEliminated())
+                        .count();
+            } finally {
+                playerMutex.V();
+            }
 
-                    // Generate n-1 words (one less than active players)
-                    int wordCount = Math.max(1, activePlayerCount - 1);
-                    java.util.List<String> words = wordGenerator.getWords(roundNumber, wordCount);
+            // Generate n-1 words (one less than active players)
+            int wordCount = Math.max(1, activePlayerCount - 1);
+            java.util.List<String> words = wordGenerator.getWords(roundNumber, wordCount);
 
-                    currentWordRound = new WordRound(words, WORD_TIMEOUT);
-                    roundStartTime = System.currentTimeMillis();
+            roundEvent = new GameEvents.Round();
+            roundEvent.begin();
+            beginRound(words);
 
-                    Message message = new Message(MessageType.NEW_WORD, currentWordRound);
-                    broadcastMessage(message);
+            Message message = new Message(MessageType.NEW_WORD, currentWordRound);
+            broadcastMessage(message);
+            newWordSentNanos = clock.nanoTime();
 
-                    System.out.println("Round " + roundNumber + "/" + MAX_ROUNDS + ": " + words + " (" + wordCount + " words for " + activePlayerCount + " players)");
+            EventLog.log("round_start", id, roundNumber, null,
+                    words + " (" + wordCount + " words for " + activePlayerCount + " players)");
+            return roundDeadlineNanos;
+        }
 
-                    Thread.sleep(WORD_TIMEOUT);
+        private long finishRound() {
+            closeClaims();
+            commitRoundEvent(activePlayerCount);
 
-                    // check misses and update player state under playerLock
-                    checkMisses();
+            // check misses and update player state under playerLock
+            checkMisses();
 
-                    // Count active (non-eliminated) players using a snapshot
-                    long activePlayers;
-                    playerMutex.P();
-                    try {
-                        activePlayers = players.values().stream()
-                                .filter(p -> !p.isEliminated())
-                                .count();
-                    } finally {
-                        playerMutex.V();
-                    }
+            // Count active (non-eliminated) players using a snapshot
+            long activePlayers;
+            lockPlayers();
+            try {
+                if (!isCurrent()) {
+                    return GameClock.DONE;
+                }
+                activePlayers = seatedPlayers().stream()
+                        .filter(p -> !p.isEliminated())
+                        .count();
+            } finally {
+                playerMutex.V();
+            }
 
-                    if (activePlayers <= 1 || roundNumber >= MAX_ROUNDS) {
-                        endGame(activePlayers);
-                        break;
-                    }
+            if (activePlayers <= 1 || roundNumber >= MAX_ROUNDS) {
+                endGame(activePlayers);
+                return GameClock.DONE;
+            }
 
-                    // Rest period
-                    Message restMessage = new Message(MessageType.REST_PERIOD, REST_TIMEOUT);
-                    broadcastMessage(restMessage);
-                    Thread.sleep(REST_TIMEOUT);
+            // Rest period
+            phase = Phase.REST;
+            Message restMessage = new Message(MessageType.REST_PERIOD, REST_TIMEOUT);
+            broadcastMessage(restMessage);
+            return roundDeadlineNanos + TimeUnit.MILLISECONDS.toNanos(REST_TIMEOUT);
+        }
+
+        private void commitRoundEvent(int activePlayerCount) {
+            roundEvent.end();
+            if (roundEvent.shouldCommit()) {
+                roundEvent.lobbyId = id;
+                roundEvent.round = roundNumber;
+                roundEvent.wordCount = currentWordRound.getWords().size();
+                roundEvent.activePlayers = activePlayerCount;
+                int claimed = 0;
+                for (int i = 0; i < roundEvent.wordCount; i++) {
+                    if (currentWordRound.isWordClaimed(i)) {
+                        claimed++;
+                    }
                 }
-            } catch (InterruptedException e) {
-                System.out.println("Game thread interrupted");
+                roundEvent.wordsClaimed = claimed;
+                roundEvent.commit();
             }
+            roundEvent = null;
         }
 
-        // synchronized to guard against concurrent claims, first come first served
-        public synchronized void checkAnswer(Player player, String answer) {
-            if (!running || player.isEliminated() || currentWordRound == null) {
-                return;
+        // Advances the player's trie cursor, false for updates that cannot belong to this round
+        boolean acceptTyping(Player player, String typedText) {
+            RoundTyping typing = roundTyping;
+            if (typing == null) {
+                return typedText.isEmpty();
             }
+            if (typedText.length() > typing.trie.getMaxWordLength() + MAX_TYPO_TAIL) {
+                return false;
+            }
+            int slot = player.getSlot();
+            if (slot < 0 || slot >= capacity) {
+                return false;
+            }
+            WordTrie.Cursor cursor = typing.cursors[slot];
+            // TCP and UDP updates of one player can arrive on different threads
+            synchronized (cursor) {
+                cursor.set(typedText);
+                return cursor.getOffTrackLength() <= MAX_TYPO_TAIL;
+            }
+        }
 
-            long currentTime = System.currentTimeMillis();
-            long elapsed = currentTime - roundStartTime;
+        private synchronized void beginRound(List<String> words) {
+            phase = Phase.ROUND;
+            roundStartNanos = clock.nanoTime();
+            roundDeadlineNanos = roundStartNanos + TimeUnit.MILLISECONDS.toNanos(WORD_TIMEOUT);
+            // clients count down to the absolute server-time deadline, not to their own receive time
+            currentWordRound = new WordRound(words, WORD_TIMEOUT, clock.toMillis(roundDeadlineNanos));
+            roundTyping = new RoundTyping(new WordTrie(words), capacity);
+            openWindows.clear();
+            Arrays.fill(pendingClaimants, false);
+            claimsOpen = true;
+        }
+
+        // The round is over: settle windows that are still collecting, later claims are ignored
+        private synchronized void closeClaims() {
+            claimsOpen = false;
+            for (ClaimWindow window : new ArrayList<>(openWindows.values())) {
+                resolveWindow(window);
+            }
+        }
+
+        // A valid claim is not awarded on arrival. The first one for a word opens a short
+        // window, and every claim collected in it competes on RTT-adjusted receive time.
+        public synchronized void checkAnswer(Player player, String answer, long receivedNanos, long rttNanos) {
+            RoundTyping typing = roundTyping;
+            if (!running || player.isEliminated() || currentWordRound == null || typing == null) {
+                return;
+            }
 
-            if (elapsed > WORD_TIMEOUT) {
+            // the cutoff itself is on server receive time, compensation only affects ordering and score
+            if (!claimsOpen || receivedNanos > roundDeadlineNanos) {
+                GameEvents.claim(id, roundNumber, player, answer, GameEvents.ClaimOutcome.LATE);
                 return;
             }
 
-            // Check if player already answered this round
-            if (player.hasAnsweredCurrentRound()) {
+            // Check if player already answered this round or is waiting on a window
+            int slot = player.getSlot();
+            if (slot < 0 || slot >= capacity || player.hasAnsweredCurrentRound() || pendingClaimants[slot]) {
                 return;
             }
 
             // Find the word in the list
-            int wordIndex = currentWordRound.findWordIndex(answer);
+            int wordIndex = typing.trie.findWordIndex(answer);
             if (wordIndex == -1) {
+                GameEvents.claim(id, roundNumber, player, answer, GameEvents.ClaimOutcome.NOT_FOUND);
                 return; // Word not in the list
             }
 
             // Check if word is already claimed
             if (currentWordRound.isWordClaimed(wordIndex)) {
+                GameEvents.claim(id, roundNumber, player, answer, GameEvents.ClaimOutcome.ALREADY_CLAIMED);
                 return; // Word already taken by another player
             }
 
+            ClaimWindow window = openWindows.get(wordIndex);
+            if (window == null) {
+                window = new ClaimWindow(currentWordRound, wordIndex);
+                openWindows.put(wordIndex, window);
+                ClaimWindow opened = window;
+                timer.schedule(() -> resolveWindow(opened), ARBITRATION_WINDOW, TimeUnit.MILLISECONDS);
+            }
+            Metrics.CLAIM_LATENCY.record(receivedNanos - newWordSentNanos);
+            long compensation = Math.min(rttNanos / 2, TimeUnit.MILLISECONDS.toNanos(MAX_LAG_COMPENSATION));
+            window.claims.add(new PendingClaim(player, slot, receivedNanos, rttNanos, receivedNanos - compensation));
+            pendingClaimants[slot] = true;
+        }
+
+        private synchronized void resolveWindow(ClaimWindow window) {
+            if (window.resolved || window.round != currentWordRound) {
+                return;
+            }
+            window.resolved = true;
+            openWindows.remove(window.wordIndex);
+
+            PendingClaim winner = null;
+            List<ClaimDecision.Candidate> candidates = new ArrayList<>();
+            for (PendingClaim claim : window.claims) {
+                pendingClaimants[claim.slot] = false;
+                candidates.add(new ClaimDecision.Candidate(claim.player.getUsername(),
+                        toRoundMillis(claim.receivedNanos), claim.rttNanos / 1_000_000.0, toRoundMillis(claim.adjustedNanos)));
+                if (winner == null || claim.adjustedNanos < winner.adjustedNanos ||
+                        (claim.adjustedNanos == winner.adjustedNanos && claim.receivedNanos < winner.receivedNanos)) {
+                    winner = claim;
+                }
+            }
+
+            String word = currentWordRound.getWords().get(window.wordIndex);
+            // claims that lost arbitration found the word taken, same as if they had come later
+            for (PendingClaim claim : window.claims) {
+                GameEvents.claim(id, roundNumber, claim.player, word, claim == winner ?
+                        GameEvents.ClaimOutcome.CLAIMED : GameEvents.ClaimOutcome.ALREADY_CLAIMED);
+            }
+            recordClaimDecision(new ClaimDecision(id, roundNumber, word, ARBITRATION_WINDOW, candidates,
+                    winner.player.getUsername()));
+            awardWord(winner.player, window.wordIndex, word,
+                    TimeUnit.NANOSECONDS.toMillis(Math.max(0, winner.adjustedNanos - roundStartNanos)));
+        }
+
+        private double toRoundMillis(long nanos) {
+            return (nanos - roundStartNanos) / 1_000_000.0;
+        }
+
+        private void awardWord(Player player, int wordIndex, String word, long elapsed) {
             // claim the word
             currentWordRound.setClaimedBy(wordIndex, player.getUsername());
 
             int remainingTime = (int) (WORD_TIMEOUT - elapsed);
-            int points = Math.max(0, remainingTime / 10);
+            int points = Math.max(0, remainingTime / MS_PER_POINT);
 
             // update player under mutex to be safe
-            playerMutex.P();
+            lockPlayers();
             try {
+                if (!isCurrent()) {
+                    return;
+                }
                 player.addScore(points);
                 player.setMissCount(0);
                 player.setAnsweredCurrentRound(true);
@@ -402,10 +816,11 @@ public class Lobby {
                 playerMutex.V();
             }
 
-            System.out.println("Player " + player.getUsername() + " claimed word '" + answer + "' and scored " + points + " points (total: " + player.getScore() + ")");
+            EventLog.log("word_claimed", id, roundNumber, player.getId(), TimeUnit.MILLISECONDS.toNanos(elapsed),
+                    player.getUsername() + " claimed '" + word + "' for " + points + " points, total " + player.getScore());
 
             // Broadcast score update
-            Message scoreMessage = new Message(MessageType.SCORE_UPDATE, player);
+            Message scoreMessage = new Message(MessageType.SCORE_UPDATE, player.view());
             broadcastMessage(scoreMessage);
 
             // Broadcast word claimed update so all clients can see which words are taken
@@ -416,16 +831,19 @@ public class Lobby {
         private void checkMisses() {
             List<Message> eliminationMessages = new ArrayList<>();
 
-            playerMutex.P();
+            lockPlayers();
             try {
-                for (Player player : players.values()) {
+                if (!isCurrent()) {
+                    return;
+                }
+                for (Player player : seatedPlayers()) {
                     if (!player.isEliminated() && !player.hasAnsweredCurrentRound()) {
                         player.incrementMissCount();
 
                         if (player.getMissCount() >= MAX_MISSES) {
                             player.setEliminated(true);
-                            eliminationMessages.add(new Message(MessageType.PLAYER_ELIMINATED, player));
-                            System.out.println("Player " + player.getUsername() + " eliminated");
+                            eliminationMessages.add(new Message(MessageType.PLAYER_ELIMINATED, player.view()));
+                            EventLog.log("player_eliminated", id, roundNumber, player.getId(), player.getUsername());
                         }
                     }
                     player.setAnsweredCurrentRound(false);
@@ -440,24 +858,28 @@ public class Lobby {
         }
 
         private void endGame(long activePlayersCount) {
-            running = false;
-            gameActive = false;
-
             Player winner;
-            // determine winner using snapshot under mutex
-            playerMutex.P();
+            // determine winner using snapshot under mutex, unless stopGame() ended the game first
+            lockPlayers();
             try {
+                if (!isCurrent()) {
+                    return;
+                }
+                phase = Phase.GAME_OVER;
+                running = false;
+                gameActive = false;
+
                 if (activePlayersCount == 1) {
-                    winner = players.values().stream()
+                    winner = seatedPlayers().stream()
                             .filter(p -> !p.isEliminated())
                             .findFirst()
                             .orElse(null);
                 } else if (activePlayersCount == 0) {
-                    winner = players.values().stream()
+                    winner = seatedPlayers().stream()
                             .max(Comparator.comparingInt(Player::getScore))
                             .orElse(null);
                 } else {
-                    winner = players.values().stream()
+                    winner = seatedPlayers().stream()
                             .filter(p -> !p.isEliminated())
                             .max(Comparator.comparingInt(Player::getScore))
                             .orElse(null);
@@ -465,19 +887,58 @@ public class Lobby {
             } finally {
                 playerMutex.V();
             }
+            directory.lobbyChanged(Lobby.this);
 
-            Message endMessage = new Message(MessageType.GAME_ENDED, winner);
+            Message endMessage = new Message(MessageType.GAME_ENDED, winner != null ? winner.view() : null);
             broadcastMessage(endMessage);
 
-            System.out.println("Game ended after round " + roundNumber + ". Winner: " +
-                    (winner != null ? winner.getUsername() + " (Score: " + winner.getScore() + ")" : "None"));
+            EventLog.log("game_ended", id, roundNumber, winner != null ? winner.getId() : null,
+                    winner != null ? "winner " + winner.getUsername() + " with " + winner.getScore() : "no winner");
 
             // Schedule kick after GAME_END_DELAY
-            scheduler.schedule(Lobby.this::kickAllPlayers, GAME_END_DELAY, TimeUnit.MILLISECONDS);
+            timer.schedule(Lobby.this::kickAllPlayers, GAME_END_DELAY, TimeUnit.MILLISECONDS);
+        }
+
+        // False once stopGame() ended this game, a step still in progress must then leave the
+        // players alone, they may already be in the next game. Caller holds playerMutex.
+        private boolean isCurrent() {
+            return gameActive && gameThread == this;
         }
 
-        public void stop() {
+        // Synchronized so that once it returns no claim can schedule on the timer being shut down
+        public synchronized void stop() {
             running = false;
+            phase = Phase.STOPPED;
+            EventLog.log("game_interrupted", id, roundNumber, null, null);
+        }
+    }
+
+    // Claims competing for one word of one round
+    private static class ClaimWindow {
+        private final WordRound round;
+        private final int wordIndex;
+        private final List<PendingClaim> claims = new ArrayList<>();
+        private boolean resolved;
+
+        ClaimWindow(WordRound round, int wordIndex) {
+            this.round = round;
+            this.wordIndex = wordIndex;
+        }
+    }
+
+    private record PendingClaim(Player player, int slot, long receivedNanos, long rttNanos, long adjustedNanos) {}
+
+    // Trie of the current round plus one cursor per slot, swapped as a unit at round start
+    private static class RoundTyping {
+        private final WordTrie trie;
+        private final WordTrie.Cursor[] cursors;
+
+        RoundTyping(WordTrie trie, int capacity) {
+            this.trie = trie;
+            this.cursors = new WordTrie.Cursor[capacity];
+            for (int slot = 0; slot < cursors.length; slot++) {
+                cursors[slot] = trie.newCursor();
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.example.wrd;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// All lobbies plus a version that moves only when one of them changes occupancy or state.
+// The LOBBY_LIST for the current version is built once and shared by every request, and
+// subscribers get the changed entries pushed at most PUSH_RATE times per second. Large
+// directories are meant to be browsed page by page through the LobbyIndex.
+public class LobbyDirectory {
+    public static final int PUSH_RATE = 4; // lobby list pushes per second to subscribers, at most
+
+    private final Map<String, Lobby> lobbies = new ConcurrentHashMap<>();
+    private final LobbyIndex index = new LobbyIndex(Lobby.MAX_PLAYERS);
+    private final AtomicLong version = new AtomicLong(1);
+    private volatile LobbyList cached;
+
+    private final Set<ClientHandler> subscribers = ConcurrentHashMap.newKeySet();
+    // held while a subscriber gets its first page and while a delta goes out, so no delta
+    // can overtake the page it builds on
+    private final Object publishLock = new Object();
+    // lobbies changed since the last push, drained by the publishing thread
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private long lastPublished = 1; // only touched by the publishing thread
+
+    public Lobby addLobby(String id, String name) {
+        Lobby lobby = new Lobby(id, name, this);
+        lobbies.put(id, lobby);
+        lobbyChanged(lobby);
+        return lobby;
+    }
+
+    public Lobby getLobby(String id) {
+        return lobbies.get(id);
+    }
+
+    public Collection<Lobby> getLobbies() {
+        return Collections.unmodifiableCollection(lobbies.values());
+    }
+
+    // Called by a lobby after its player count or game state changed
+    public void lobbyChanged(Lobby lobby) {
+        index.update(lobby);
+        dirty.add(lobby.getId());
+        version.incrementAndGet();
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // Lock-free unless the version moved since the last build
+    public LobbyList snapshot() {
+        LobbyList list = cached;
+        if (list != null && list.getVersion() == version.get()) {
+            return list;
+        }
+        return rebuild();
+    }
+
+    private synchronized LobbyList rebuild() {
+        long current = version.get();
+        LobbyList list = cached;
+        if (list != null && list.getVersion() == current) {
+            return list;
+        }
+        // read after the version, so the entries are never older than the version they carry
+        list = new LobbyList(current, lobbies.values().stream()
+                .sorted(Comparator.comparing(Lobby::getId))
+                .map(LobbyDirectory::info)
+                .toArray(LobbyInfo[]::new));
+        cached = list;
+        return list;
+    }
+
+    // One page of lobbies matching the query, cost grows with the page and not the directory
+    public LobbyPage query(LobbyQuery query) {
+        long current = version.get();
+        int pageSize = query.pageSize() <= 0 ? LobbyIndex.DEFAULT_PAGE_SIZE
+                : Math.min(query.pageSize(), LobbyIndex.MAX_PAGE_SIZE);
+        // one extra lobby tells whether there is a next page
+        List<Lobby> matches = index.query(query, pageSize + 1);
+        boolean more = matches.size() > pageSize;
+        if (more) {
+            matches = matches.subList(0, pageSize);
+        }
+        LobbyInfo[] infos = matches.stream().map(LobbyDirectory::info).toArray(LobbyInfo[]::new);
+        String nextCursor = more ? index.cursorOf(matches.get(pageSize - 1)) : null;
+        return new LobbyPage(infos, nextCursor, current, query.tag());
+    }
+
+    private static LobbyInfo info(Lobby lobby) {
+        return new LobbyInfo(lobby.getId(), lobby.getName(), lobby.getPlayerCount(),
+                lobby.getMaxPlayers(), lobby.isGameActive());
+    }
+
+    // Without a query the full list goes out right away, with one its first page. After that
+    // only deltas.
+    public void subscribe(ClientHandler handler, LobbyQuery firstPage) {
+        synchronized (publishLock) {
+            if (firstPage != null) {
+                handler.sendMessage(new Message(MessageType.LOBBY_PAGE, query(firstPage)));
+            } else {
+                handler.sendMessage(new Message(MessageType.LOBBY_LIST, snapshot()));
+            }
+            subscribers.add(handler);
+        }
+    }
+
+    public void unsubscribe(ClientHandler handler) {
+        subscribers.remove(handler);
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // Runs every 1000 / PUSH_RATE ms on one thread: everything that changed since the last
+    // run goes out as a single delta, so a burst of joins costs subscribers one frame
+    public void publish() {
+        synchronized (publishLock) {
+            publishChanges();
+        }
+    }
+
+    private void publishChanges() {
+        long current = version.get();
+        if (current == lastPublished) {
+            return;
+        }
+        List<LobbyInfo> changed = new ArrayList<>();
+        for (Iterator<String> it = dirty.iterator(); it.hasNext(); ) {
+            Lobby lobby = lobbies.get(it.next());
+            it.remove();
+            if (lobby != null) {
+                changed.add(info(lobby));
+            }
+        }
+        long base = lastPublished;
+        lastPublished = current;
+        if (changed.isEmpty()) {
+            return; // already went out with the previous delta
+        }
+        Message delta = new Message(MessageType.LOBBY_LIST_DELTA,
+                new LobbyList(current, base, changed.toArray(new LobbyInfo[0])));
+
+        List<ClientHandler> targets = new ArrayList<>(subscribers);
+        for (ClientHandler handler : targets) {
+            handler.sendMessage(delta);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.wrd;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Secondary index over the lobbies for LobbyQuery. Every (state, free slots) pair has its own
+// skip list sorted by normalized name, so a query only walks the buckets its filters allow,
+// starts at the name prefix or cursor, and merges them until the page is full.
+public class LobbyIndex {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 50;
+
+    private static final int WAITING = 0;
+    private static final int IN_GAME = 1;
+
+    // [state][free slots] -> sort key -> lobby
+    private final ConcurrentSkipListMap<String, Lobby>[][] buckets;
+    private final Map<String, Placement> placements = new ConcurrentHashMap<>();
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // generic array creation
+    public LobbyIndex(int maxPlayers) {
+        buckets = new ConcurrentSkipListMap[2][maxPlayers + 1];
+        for (ConcurrentSkipListMap<String, Lobby>[] byFreeSlots : buckets) {
+            for (int free = 0; free < byFreeSlots.length; free++) {
+                byFreeSlots[free] = new ConcurrentSkipListMap<>();
+            }
+        }
+    }
+
+    // Moves the lobby to the bucket of its current state. A concurrent query may miss it for
+    // that instant, but never sees it twice.
+    public void update(Lobby lobby) {
+        Placement placement = placements.computeIfAbsent(lobby.getId(),
+                id -> new Placement(sortKey(lobby.getName(), id)));
+        synchronized (placement) {
+            int state = lobby.isGameActive() ? IN_GAME : WAITING;
+            int free = Math.max(0, Math.min(buckets[state].length - 1, lobby.getMaxPlayers() - lobby.getPlayerCount()));
+            ConcurrentSkipListMap<String, Lobby> target = buckets[state][free];
+            if (placement.bucket == target) {
+                return;
+            }
+            if (placement.bucket != null) {
+                placement.bucket.remove(placement.key);
+            }
+            target.put(placement.key, lobby);
+            placement.bucket = target;
+        }
+    }
+
+    public List<Lobby> query(LobbyQuery query, int pageSize) {
+        String prefix = query.namePrefix() == null ? "" : normalize(query.namePrefix());
+        String to = prefix + Character.MAX_VALUE;
+        String from = prefix;
+        boolean fromInclusive = true;
+        if (query.after() != null && query.after().compareTo(prefix) >= 0) {
+            from = query.after();
+            fromInclusive = false;
+        }
+        if (from.compareTo(to) >= 0) {
+            return new ArrayList<>();
+        }
+
+        // k-way merge of the matching buckets, each one already sorted by name
+        PriorityQueue<Cursor> heads = new PriorityQueue<>();
+        int minFree = Math.max(0, query.minFreeSlots());
+        for (int state = WAITING; state <= IN_GAME; state++) {
+            if (query.gameActive() != null && query.gameActive() != (state == IN_GAME)) {
+                continue;
+            }
+            for (int free = minFree; free < buckets[state].length; free++) {
+                NavigableMap<String, Lobby> range = buckets[state][free].subMap(from, fromInclusive, to, false);
+                Cursor cursor = new Cursor(range.entrySet().iterator());
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+        }
+
+        List<Lobby> page = new ArrayList<>(pageSize);
+        while (page.size() < pageSize && !heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            page.add(cursor.head.getValue());
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return page;
+    }
+
+    // Opaque cursor handed to clients: where the next page starts after this lobby
+    public String cursorOf(Lobby lobby) {
+        Placement placement = placements.get(lobby.getId());
+        return placement != null ? placement.key : sortKey(lobby.getName(), lobby.getId());
+    }
+
+    private static String sortKey(String name, String id) {
+        // the id keeps lobbies with the same name apart
+        return normalize(name) + '\u0000' + id;
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Placement {
+        private final String key;
+        private ConcurrentSkipListMap<String, Lobby> bucket; // guarded by this
+
+        Placement(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Iterator<Map.Entry<String, Lobby>> entries;
+        private Map.Entry<String, Lobby> head;
+
+        Cursor(Iterator<Map.Entry<String, Lobby>> entries) {
+            this.entries = entries;
+        }
+
+        boolean advance() {
+            head = entries.hasNext() ? entries.next() : null;
+            return head != null;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return head.getKey().compareTo(other.head.getKey());
+        }
+    }
+}
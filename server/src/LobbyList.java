@@ -0,0 +1,83 @@
+package com.example.wrd;
+
+import java.io.*;
+
+// LOBBY_LIST and LOBBY_LIST_DELTA payload. The directory encodes the entries once per version
+// and every request or push for that version writes the same bytes, so sending costs one
+// buffer copy. A delta only holds the lobbies that changed after baseVersion.
+public class LobbyList implements Externalizable {
+    private static final long serialVersionUID = 436;
+
+    private long version;
+    private long baseVersion; // 0 for a full list
+    private byte[] encoded;
+    private LobbyInfo[] lobbies;
+
+    // for deserialization only
+    public LobbyList() {}
+
+    public LobbyList(long version, LobbyInfo[] lobbies) {
+        this(version, 0, lobbies);
+    }
+
+    public LobbyList(long version, long baseVersion, LobbyInfo[] lobbies) {
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.lobbies = lobbies;
+        this.encoded = encode(lobbies);
+    }
+
+    private static byte[] encode(LobbyInfo[] lobbies) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 * lobbies.length + 4);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(lobbies.length);
+            for (LobbyInfo lobby : lobbies) {
+                out.writeUTF(lobby.id());
+                out.writeUTF(lobby.name());
+                out.writeInt(lobby.currentPlayers());
+                out.writeInt(lobby.maxPlayers());
+                out.writeBoolean(lobby.gameActive());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static LobbyInfo[] decode(byte[] encoded) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+        LobbyInfo[] lobbies = new LobbyInfo[in.readInt()];
+        for (int i = 0; i < lobbies.length; i++) {
+            lobbies[i] = new LobbyInfo(in.readUTF(), in.readUTF(), in.readInt(), in.readInt(), in.readBoolean());
+        }
+        return lobbies;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeLong(version);
+        out.writeLong(baseVersion);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        version = in.readLong();
+        baseVersion = in.readLong();
+        encoded = new byte[in.readInt()];
+        in.readFully(encoded);
+        lobbies = decode(encoded);
+    }
+
+    public long getVersion() { return version; }
+    public long getBaseVersion() { return baseVersion; }
+    public boolean isDelta() { return baseVersion != 0; }
+    public LobbyInfo[] getLobbies() { return lobbies; }
+
+    @Override
+    public String toString() {
+        return "LobbyList{version=" + version + (isDelta() ? ", baseVersion=" + baseVersion : "") +
+                ", lobbies=" + java.util.Arrays.toString(lobbies) + '}';
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.wrd;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+// One page of a LobbyQuery, ordered by name. nextCursor is null on the last page, tag is the
+// query's.
+public record LobbyPage(LobbyInfo[] lobbies, String nextCursor, long version, long tag) implements Serializable {
+    private static final long serialVersionUID = 436;
+
+    @Override
+    public String toString() {
+        return "LobbyPage{version=" + version + ", lobbies=" + Arrays.toString(lobbies) +
+                ", nextCursor='" + nextCursor + "', tag=" + tag + "}";
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.wrd;
+
+import java.io.Serializable;
+
+// Filtered, paginated GET_LOBBIES. Null filters match everything; after is the nextCursor of
+// the previous LobbyPage, null for the first page. tag is echoed in the LobbyPage so a client
+// can tell the answer to its latest request from a late one.
+public record LobbyQuery(Boolean gameActive, int minFreeSlots, String namePrefix, String after,
+                         int pageSize, long tag) implements Serializable {
+    private static final long serialVersionUID = 436;
+
+    public LobbyQuery(Boolean gameActive, int minFreeSlots, String namePrefix, String after, int pageSize) {
+        this(gameActive, minFreeSlots, namePrefix, after, pageSize, 0);
+    }
+}
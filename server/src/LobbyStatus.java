@@ -0,0 +1,9 @@
+package com.example.wrd;
+
+import java.util.List;
+
+// Operator view of one lobby, see Lobby.status()
+public record LobbyStatus(String id, String name, Lobby.Phase phase, int round, boolean gameActive, boolean draining,
+                          int playerCount, int readyCount, List<PlayerView> players, String gameThread,
+                          Thread.State gameThreadState, int mutexQueueLength, String mutexHolder) {
+}
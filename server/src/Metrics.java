@@ -0,0 +1,191 @@
+package com.example.wrd;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Server-wide metrics. The hot-path recorders only touch preallocated LongAdders and
+// Histograms; gauges and counters owned by other classes are read at scrape time.
+public final class Metrics {
+    private static final MessageType[] TYPES = MessageType.values();
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final LongAdder[] MESSAGES_IN = adders(TYPES.length);
+    private static final LongAdder[] BYTES_IN = adders(TYPES.length);
+    private static final LongAdder[] MESSAGES_OUT = adders(TYPES.length);
+    private static final LongAdder[] BYTES_OUT = adders(TYPES.length);
+    private static final Histogram[] DISPATCH = histograms(TYPES.length); // nanos per inbound message type
+    private static final Histogram[] BROADCAST = histograms(TYPES.length); // nanos per lobby fan-out
+
+    public static final Histogram CLAIM_LATENCY = new Histogram(); // nanos from NEW_WORD broadcast to claim
+    public static final Histogram OUTBOUND_QUEUE_DEPTH = new Histogram(); // messages waiting, sampled on enqueue
+    public static final Histogram[] OUTBOUND_LATENCY = histograms(OutboundQueue.Priority.values().length);
+
+    // keyed by name and labels in registration order, so a restarted server replaces its
+    // series instead of exporting them twice
+    private static final Map<String, Sampled> SAMPLED = new LinkedHashMap<>();
+    private static final Map<String, Summarized> SUMMARIZED = new LinkedHashMap<>();
+
+    private Metrics() {}
+
+    public static void recordInbound(MessageType type, long bytes) {
+        MESSAGES_IN[type.ordinal()].increment();
+        BYTES_IN[type.ordinal()].add(bytes);
+    }
+
+    public static void recordOutbound(MessageType type, long bytes) {
+        MESSAGES_OUT[type.ordinal()].increment();
+        BYTES_OUT[type.ordinal()].add(bytes);
+    }
+
+    public static void recordDispatch(MessageType type, long nanos) {
+        DISPATCH[type.ordinal()].record(nanos);
+    }
+
+    public static void recordBroadcast(MessageType type, long nanos) {
+        BROADCAST[type.ordinal()].record(nanos);
+    }
+
+    // Value owned elsewhere, read on every scrape. labels is either empty or like type="x".
+    public static void gauge(String name, String labels, String help, LongSupplier value) {
+        synchronized (SAMPLED) {
+            SAMPLED.put(name + '{' + labels + '}', new Sampled(name, labels, help, "gauge", value));
+        }
+    }
+
+    public static void counter(String name, String labels, String help, LongSupplier value) {
+        synchronized (SAMPLED) {
+            SAMPLED.put(name + '{' + labels + '}', new Sampled(name, labels, help, "counter", value));
+        }
+    }
+
+    // Histogram owned elsewhere, scale converts its unit to the exported one (1e-9 for nanos to seconds)
+    public static void summary(String name, String labels, String help, Histogram histogram, double scale) {
+        synchronized (SUMMARIZED) {
+            SUMMARIZED.put(name + '{' + labels + '}', new Summarized(name, labels, help, histogram, scale));
+        }
+    }
+
+    // Prometheus text exposition format 0.0.4
+    public static String scrape() {
+        StringBuilder out = new StringBuilder(16 * 1024);
+        perType(out, "wrd_messages_in_total", "Inbound messages by type", MESSAGES_IN);
+        perType(out, "wrd_message_bytes_in_total", "Inbound serialized bytes by type", BYTES_IN);
+        perType(out, "wrd_messages_out_total", "Outbound messages by type", MESSAGES_OUT);
+        perType(out, "wrd_message_bytes_out_total", "Outbound serialized bytes by type", BYTES_OUT);
+
+        header(out, "wrd_dispatch_seconds", "summary", "Inbound message handling time by type");
+        for (MessageType type : TYPES) {
+            summary(out, "wrd_dispatch_seconds", "type=\"" + type + "\"", DISPATCH[type.ordinal()], 1e-9);
+        }
+        header(out, "wrd_broadcast_seconds", "summary", "Lobby broadcast fan-out time by type");
+        for (MessageType type : TYPES) {
+            summary(out, "wrd_broadcast_seconds", "type=\"" + type + "\"", BROADCAST[type.ordinal()], 1e-9);
+        }
+        header(out, "wrd_claim_latency_seconds", "summary", "Time from NEW_WORD broadcast to a valid claim");
+        summary(out, "wrd_claim_latency_seconds", "", CLAIM_LATENCY, 1e-9);
+        header(out, "wrd_outbound_queue_depth", "summary", "Outbound queue depth of a connection, sampled on enqueue");
+        summary(out, "wrd_outbound_queue_depth", "", OUTBOUND_QUEUE_DEPTH, 1);
+        header(out, "wrd_outbound_latency_seconds", "summary", "Enqueue to socket write latency by priority");
+        for (OutboundQueue.Priority priority : OutboundQueue.Priority.values()) {
+            summary(out, "wrd_outbound_latency_seconds", "priority=\"" + priority + "\"",
+                    OUTBOUND_LATENCY[priority.ordinal()], 1e-9);
+        }
+
+        List<Sampled> sampledNow;
+        synchronized (SAMPLED) {
+            sampledNow = new ArrayList<>(SAMPLED.values());
+        }
+        List<Summarized> summarizedNow;
+        synchronized (SUMMARIZED) {
+            summarizedNow = new ArrayList<>(SUMMARIZED.values());
+        }
+        String family = null;
+        for (Sampled sampled : sampledNow) {
+            if (!sampled.name.equals(family)) {
+                family = sampled.name;
+                header(out, sampled.name, sampled.type, sampled.help);
+            }
+            sample(out, sampled.name, sampled.labels, sampled.value.getAsLong());
+        }
+        family = null;
+        for (Summarized summarized : summarizedNow) {
+            if (!summarized.name.equals(family)) {
+                family = summarized.name;
+                header(out, summarized.name, "summary", summarized.help);
+            }
+            summary(out, summarized.name, summarized.labels, summarized.histogram, summarized.scale);
+        }
+        return out.toString();
+    }
+
+    private static void perType(StringBuilder out, String name, String help, LongAdder[] values) {
+        header(out, name, "counter", help);
+        for (MessageType type : TYPES) {
+            long value = values[type.ordinal()].sum();
+            if (value > 0) {
+                sample(out, name, "type=\"" + type + "\"", value);
+            }
+        }
+    }
+
+    private static void summary(StringBuilder out, String name, String labels, Histogram histogram, double scale) {
+        long count = histogram.getCount();
+        if (count == 0) {
+            return;
+        }
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long[] values = histogram.quantiles(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            sample(out, name, prefix + "quantile=\"" + QUANTILES[i] + "\"", values[i] * scale);
+        }
+        sample(out, name, prefix + "quantile=\"1.0\"", histogram.getMax() * scale);
+        sample(out, name + "_sum", labels, histogram.getSum() * scale);
+        sample(out, name + "_count", labels, count);
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ').append(String.format(Locale.ROOT, "%.9g", value)).append('\n');
+    }
+
+    private static LongAdder[] adders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static Histogram[] histograms(int n) {
+        Histogram[] histograms = new Histogram[n];
+        for (int i = 0; i < n; i++) {
+            histograms[i] = new Histogram();
+        }
+        return histograms;
+    }
+
+    private record Sampled(String name, String labels, String help, String type, LongSupplier value) {}
+
+    private record Summarized(String name, String labels, String help, Histogram histogram, double scale) {}
+}
@@ -0,0 +1,63 @@
+package com.example.wrd;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Local Prometheus scrape endpoint at http://127.0.0.1:<port>/metrics, plus the AdminApi routes
+public class MetricsHttpServer {
+    private final HttpServer http;
+    private final ExecutorService executor; // HttpServer.stop leaves a custom executor running
+    private final AdminApi admin;
+
+    private MetricsHttpServer(HttpServer http, ExecutorService executor, AdminApi admin) {
+        this.http = http;
+        this.executor = executor;
+        this.admin = admin;
+    }
+
+    // Returns null if the port cannot be bound, the game server runs on without metrics
+    public static MetricsHttpServer start(int port, AdminApi admin) {
+        try {
+            HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            http.createContext("/metrics", MetricsHttpServer::handleScrape);
+            admin.register(http);
+            ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "MetricsHttp"));
+            http.setExecutor(executor);
+            http.start();
+            System.out.println("Metrics on http://127.0.0.1:" + port + "/metrics, admin under /admin");
+            return new MetricsHttpServer(http, executor, admin);
+        } catch (IOException e) {
+            System.out.println("Metrics endpoint disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void handleScrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = Metrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    public void stop() {
+        http.stop(0);
+        executor.shutdown();
+        admin.stop();
+    }
+}
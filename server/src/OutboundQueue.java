@@ -0,0 +1,139 @@
+package com.example.wrd;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Per-connection outbound path split by priority. Game-critical messages always go out
+// first and in order; cosmetic ones are coalesced per key and dropped under pressure.
+public class OutboundQueue {
+    public enum Priority { CRITICAL, COSMETIC }
+
+    private static final int MAX_COSMETIC_PENDING = 32;
+    private static final int MAX_CRITICAL_PENDING = 1024; // a reader this far behind is not coming back
+
+    // enqueue-to-socket-write latency per priority, shared by all connections
+    private static final LatencyStats[] LATENCY = {new LatencyStats(), new LatencyStats()};
+
+    private final ArrayDeque<Entry> critical = new ArrayDeque<>();
+    private final LinkedHashMap<String, Entry> cosmetic = new LinkedHashMap<>();
+    private volatile long droppedCosmetic;
+    private volatile int depth; // critical + cosmetic, refreshed on every change for lock-free reads
+    private boolean closed;
+
+    public static Priority priorityOf(MessageType type) {
+        switch (type) {
+            case TYPING_UPDATE:
+            case PLAYER_LIST_UPDATE:
+                return Priority.COSMETIC;
+            default:
+                return Priority.CRITICAL;
+        }
+    }
+
+    public static LatencyStats latency(Priority priority) {
+        return LATENCY[priority.ordinal()];
+    }
+
+    // Returns false when the critical lane overflowed; the queue is closed then and the
+    // caller must drop the connection, since critical messages cannot be skipped
+    public synchronized boolean enqueue(Message message) {
+        if (closed) return true;
+        if (priorityOf(message.getType()) == Priority.CRITICAL) {
+            if (critical.size() >= MAX_CRITICAL_PENDING) {
+                close();
+                return false;
+            }
+            critical.addLast(new Entry(message, Priority.CRITICAL, System.nanoTime()));
+        } else {
+            // only the latest player list matters, older pending ones are replaced
+            offerCosmetic(message.getType().name(), message, System.nanoTime());
+        }
+        depth = critical.size() + cosmetic.size();
+        Metrics.OUTBOUND_QUEUE_DEPTH.record(depth);
+        notify();
+        return true;
+    }
+
+    // Typing deltas of one player merge into a single full-text replace while they wait
+    public synchronized void enqueueTyping(Message deltaMessage, String fullText) {
+        if (closed) return;
+        TypingDelta delta = (TypingDelta) deltaMessage.getData();
+        String key = "typing:" + delta.getPlayerSlot();
+        Entry pending = cosmetic.get(key);
+        if (pending == null) {
+            offerCosmetic(key, deltaMessage, System.nanoTime());
+        } else {
+            Message merged = new Message(MessageType.TYPING_UPDATE,
+                    TypingDelta.replace(delta.getPlayerSlot(), delta.getSeq(), fullText));
+            cosmetic.put(key, new Entry(merged, Priority.COSMETIC, pending.enqueuedNanos));
+        }
+        depth = critical.size() + cosmetic.size();
+        Metrics.OUTBOUND_QUEUE_DEPTH.record(depth);
+        notify();
+    }
+
+    private void offerCosmetic(String key, Message message, long now) {
+        Entry pending = cosmetic.get(key);
+        if (pending != null) {
+            cosmetic.put(key, new Entry(message, Priority.COSMETIC, pending.enqueuedNanos));
+        } else if (cosmetic.size() < MAX_COSMETIC_PENDING) {
+            cosmetic.put(key, new Entry(message, Priority.COSMETIC, now));
+        } else {
+            droppedCosmetic++;
+        }
+    }
+
+    // Blocks until a message is available, null once the queue is closed
+    public synchronized Entry take() throws InterruptedException {
+        while (!closed && critical.isEmpty() && cosmetic.isEmpty()) {
+            wait();
+        }
+        if (closed) return null;
+        Entry next = critical.pollFirst();
+        if (next == null) {
+            Iterator<Map.Entry<String, Entry>> it = cosmetic.entrySet().iterator();
+            next = it.next().getValue();
+            it.remove();
+        }
+        depth = critical.size() + cosmetic.size();
+        return next;
+    }
+
+    public synchronized boolean isEmpty() {
+        return critical.isEmpty() && cosmetic.isEmpty();
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public long getDroppedCosmetic() {
+        return droppedCosmetic;
+    }
+
+    public synchronized void close() {
+        closed = true;
+        critical.clear();
+        cosmetic.clear();
+        depth = 0;
+        notifyAll();
+    }
+
+    public static final class Entry {
+        private final Message message;
+        private final Priority priority;
+        private final long enqueuedNanos;
+
+        Entry(Message message, Priority priority, long enqueuedNanos) {
+            this.message = message;
+            this.priority = priority;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        public Message getMessage() { return message; }
+        public Priority getPriority() { return priority; }
+        public long getEnqueuedNanos() { return enqueuedNanos; }
+    }
+}
@@ -1,30 +1,18 @@
 package com.example.wrd;
 
-import java.io.Serializable;
-
-public class Player implements Serializable {
-    private static final long serialVersionUID = 436;
+// Server-side state of a player. Every change publishes a new immutable PlayerView
+// (copy-on-write); only views go on the wire, so broadcasts never see a half-applied update.
+public class Player {
+    public static final int NO_SLOT = -1;
 
     private final String id;
-    private final String username;
-    private int score;
-    private int missCount;
-    private boolean eliminated;
-    private String currentTypedText;
-    private String color;
-    private boolean answeredCurrentRound;
-    private boolean ready;
+    private volatile PlayerView view;
+    private volatile boolean answeredCurrentRound;
 
     public Player(String id, String username) {
         this.id = id;
-        this.username = username;
-        this.score = 0;
-        this.missCount = 0;
-        this.eliminated = false;
-        this.currentTypedText = "";
-        this.color = generateRandomColor();
+        this.view = new PlayerView(NO_SLOT, username, 0, 0, false, "", 0, generateRandomColor(), false);
         this.answeredCurrentRound = false;
-        this.ready = false;
     }
 
     private String generateRandomColor() {
@@ -36,38 +24,68 @@ public class Player implements Serializable {
         return colors[(int) (Math.random() * colors.length)];
     }
 
-    // Getters and setters
+    // Current snapshot, lock-free
+    public PlayerView view() { return view; }
+
+    // Getters read the current view, setters replace it
     public String getId() { return id; }
-    public String getUsername() { return username; }
-    public int getScore() { return score; }
-    public void setScore(int score) { this.score = score; }
-    public void addScore(int points) { this.score += points; }
 
-    public int getMissCount() { return missCount; }
-    public void setMissCount(int missCount) { this.missCount = missCount; }
-    public void incrementMissCount() { this.missCount++; }
+    // Seat in the current lobby, NO_SLOT while not in one
+    public int getSlot() { return view.slot(); }
+    public synchronized void setSlot(int slot) { view = view.withSlot(slot); }
+
+    public String getUsername() { return view.username(); }
+    public int getScore() { return view.score(); }
+    public synchronized void setScore(int score) { view = view.withScore(score); }
+    public synchronized void addScore(int points) { view = view.withScore(view.score() + points); }
+
+    public int getMissCount() { return view.missCount(); }
+    public synchronized void setMissCount(int missCount) { view = view.withMissCount(missCount); }
+    public synchronized void incrementMissCount() { view = view.withMissCount(view.missCount() + 1); }
+
+    public boolean isEliminated() { return view.eliminated(); }
+    public synchronized void setEliminated(boolean eliminated) { view = view.withEliminated(eliminated); }
 
-    public boolean isEliminated() { return eliminated; }
-    public void setEliminated(boolean eliminated) { this.eliminated = eliminated; }
+    public String getCurrentTypedText() { return view.currentTypedText(); }
 
-    public String getCurrentTypedText() { return currentTypedText; }
-    public void setCurrentTypedText(String text) { this.currentTypedText = text; }
+    // Replaces the typed text and returns the edit to broadcast, or null if nothing changed
+    public synchronized TypingDelta updateTypedText(String text) {
+        PlayerView current = view;
+        TypingDelta delta = TypingDelta.between(current.slot(), current.typingSeq() + 1, current.currentTypedText(), text);
+        if (delta != null) {
+            view = current.withTyping(text, delta.getSeq());
+        }
+        return delta;
+    }
+
+    public TypingDelta typingSnapshot() {
+        PlayerView current = view;
+        return TypingDelta.replace(current.slot(), current.typingSeq(), current.currentTypedText());
+    }
 
-    public String getColor() { return color; }
-    public void setColor(String color) { this.color = color; }
+    public String getColor() { return view.color(); }
+    public synchronized void setColor(String color) { view = view.withColor(color); }
 
     public boolean hasAnsweredCurrentRound() { return answeredCurrentRound; }
     public void setAnsweredCurrentRound(boolean answered) { this.answeredCurrentRound = answered; }
 
-    public boolean isReady() { return ready; }
-    public void setReady(boolean ready) { this.ready = ready; }
+    public boolean isReady() { return view.ready(); }
+    public synchronized void setReady(boolean ready) { view = view.withReady(ready); }
+
+    // Back to a fresh seat in one step, a single new view instead of one per field
+    public synchronized void resetForGame() {
+        PlayerView current = view;
+        view = new PlayerView(current.slot(), current.username(), 0, 0, false, "",
+                current.typingSeq() + 1, current.color(), false);
+        answeredCurrentRound = false;
+    }
 
     @Override
     public String toString() {
         return "Player{" +
-                "username='" + username + '\'' +
-                ", score=" + score +
-                ", eliminated=" + eliminated +
+                "username='" + getUsername() + '\'' +
+                ", score=" + getScore() +
+                ", eliminated=" + isEliminated() +
                 '}';
     }
 }
@@ -0,0 +1,50 @@
+package com.example.wrd;
+
+import java.io.Serializable;
+
+// Immutable wire snapshot of a Player. A new one is built on every change and then shared
+// by all broadcasts until the next change, so serializing it never needs a lock. Players are
+// identified by their lobby slot here, the long player id never leaves the join handshake.
+public record PlayerView(int slot, String username, int score, int missCount, boolean eliminated,
+                         String currentTypedText, int typingSeq, String color, boolean ready)
+        implements Serializable {
+    private static final long serialVersionUID = 436;
+
+    public PlayerView withSlot(int slot) {
+        return new PlayerView(slot, username, score, missCount, eliminated, currentTypedText, typingSeq, color, ready);
+    }
+
+    public PlayerView withScore(int score) {
+        return new PlayerView(slot, username, score, missCount, eliminated, currentTypedText, typingSeq, color, ready);
+    }
+
+    public PlayerView withMissCount(int missCount) {
+        return new PlayerView(slot, username, score, missCount, eliminated, currentTypedText, typingSeq, color, ready);
+    }
+
+    public PlayerView withEliminated(boolean eliminated) {
+        return new PlayerView(slot, username, score, missCount, eliminated, currentTypedText, typingSeq, color, ready);
+    }
+
+    public PlayerView withTyping(String currentTypedText, int typingSeq) {
+        return new PlayerView(slot, username, score, missCount, eliminated, currentTypedText, typingSeq, color, ready);
+    }
+
+    public PlayerView withColor(String color) {
+        return new PlayerView(slot, username, score, missCount, eliminated, currentTypedText, typingSeq, color, ready);
+    }
+
+    public PlayerView withReady(boolean ready) {
+        return new PlayerView(slot, username, score, missCount, eliminated, currentTypedText, typingSeq, color, ready);
+    }
+
+    @Override
+    public String toString() {
+        return "PlayerView{" +
+                "slot=" + slot +
+                ", username='" + username + '\'' +
+                ", score=" + score +
+                ", eliminated=" + eliminated +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.wrd;
+
+import java.util.Arrays;
+
+// Round-trip time of one connection, fed from PING/PONG: an EWMA for decisions on the hot
+// path plus a window of recent samples for percentiles. PINGs carry only a sequence number and
+// the send times stay here, so a client cannot shape its own RTT by echoing a forged time.
+public class RttEstimator {
+    private static final double ALPHA = 0.125; // same gain as TCP's SRTT
+    private static final int WINDOW = 64;
+    private static final int MAX_OUTSTANDING = 8; // unanswered pings remembered, older ones count as lost
+
+    private volatile long smoothedNanos = -1; // -1 until the first sample
+    private final long[] samples = new long[WINDOW];
+    private int sampleCount;
+    private int next;
+    private long nextProbeSeq = 1;
+    private final long[] probeSeqs = new long[MAX_OUTSTANDING];
+    private final long[] probeSentNanos = new long[MAX_OUTSTANDING];
+
+    public synchronized long nextProbeSeq() {
+        return nextProbeSeq++;
+    }
+
+    // Called by the writer right before the PING hits the socket, so queueing is not counted
+    public synchronized void probeSent(long seq, long nowNanos) {
+        int slot = (int) Math.floorMod(seq, (long) MAX_OUTSTANDING);
+        probeSeqs[slot] = seq;
+        probeSentNanos[slot] = nowNanos;
+    }
+
+    // PONG echo; unknown, already answered or never-written sequences are ignored
+    public synchronized void probeAnswered(long seq, long receivedNanos) {
+        int slot = (int) Math.floorMod(seq, (long) MAX_OUTSTANDING);
+        if (seq <= 0 || probeSeqs[slot] != seq) return;
+        probeSeqs[slot] = 0;
+        addSample(receivedNanos - probeSentNanos[slot]);
+    }
+
+    public synchronized void addSample(long rttNanos) {
+        if (rttNanos < 0) return;
+        long current = smoothedNanos;
+        smoothedNanos = current < 0 ? rttNanos : (long) (current + ALPHA * (rttNanos - current));
+
+        samples[next] = rttNanos;
+        next = (next + 1) % WINDOW;
+        sampleCount = Math.min(sampleCount + 1, WINDOW);
+    }
+
+    public boolean hasSamples() {
+        return smoothedNanos >= 0;
+    }
+
+    // 0 until measured, so unmeasured connections get no compensation
+    public long getSmoothedNanos() {
+        return Math.max(0, smoothedNanos);
+    }
+
+    // Percentile (0-100) over the recent sample window, 0 without samples
+    public synchronized long percentileNanos(double percentile) {
+        if (sampleCount == 0) return 0;
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sampleCount) - 1;
+        return sorted[Math.max(0, Math.min(sampleCount - 1, index))];
+    }
+}
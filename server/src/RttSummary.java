@@ -0,0 +1,27 @@
+package com.example.wrd;
+
+import java.util.Arrays;
+
+// Distribution of smoothed RTTs across a set of connections, e.g. one lobby
+public record RttSummary(int connections, double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+
+    public static RttSummary of(long[] rttNanos) {
+        if (rttNanos.length == 0) {
+            return new RttSummary(0, 0, 0, 0, 0);
+        }
+        long[] sorted = rttNanos.clone();
+        Arrays.sort(sorted);
+        return new RttSummary(sorted.length, percentile(sorted, 50), percentile(sorted, 90),
+                percentile(sorted, 99), sorted[sorted.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms", connections, p50Ms, p90Ms, p99Ms, maxMs);
+    }
+}
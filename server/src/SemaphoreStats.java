@@ -0,0 +1,49 @@
+package com.example.wrd;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Contention counters of one semaphore. Uncontended acquires only bump a counter, the clock is
+// read only when a thread has to queue.
+public class SemaphoreStats {
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final Histogram waitNanos = new Histogram(); // queued acquires only
+    private final Histogram holdNanos = new Histogram(); // acquire to release, binary semaphores only
+
+    void recordAcquire() {
+        acquires.increment();
+    }
+
+    void recordContended(long waitedNanos) {
+        acquires.increment();
+        contended.increment();
+        waitNanos.record(waitedNanos);
+    }
+
+    void recordHold(long heldNanos) {
+        holdNanos.record(heldNanos);
+    }
+
+    public long getAcquires() { return acquires.sum(); }
+    public long getContended() { return contended.sum(); }
+    public Histogram getWaitNanos() { return waitNanos; }
+    public Histogram getHoldNanos() { return holdNanos; }
+
+    @Override
+    public String toString() {
+        long[] wait = waitNanos.quantiles(0.5, 0.99);
+        StringBuilder out = new StringBuilder()
+                .append("acquires=").append(getAcquires())
+                .append(" contended=").append(getContended());
+        if (waitNanos.getCount() > 0) {
+            out.append(String.format(" wait p50=%.2fms p99=%.2fms max=%.2fms",
+                    wait[0] / 1e6, wait[1] / 1e6, waitNanos.getMax() / 1e6));
+        }
+        if (holdNanos.getCount() > 0) {
+            long[] hold = holdNanos.quantiles(0.5, 0.99);
+            out.append(String.format(" hold p50=%.2fms p99=%.2fms max=%.2fms",
+                    hold[0] / 1e6, hold[1] / 1e6, holdNanos.getMax() / 1e6));
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.wrd;
+
+// Server time as sent on the wire: milliseconds on the monotonic clock, anchored to the
+// wall clock once at startup so NTP steps on the host never move a running deadline
+public final class ServerClock {
+    private static final long START_NANOS = System.nanoTime();
+    private static final long START_MILLIS = System.currentTimeMillis();
+
+    private ServerClock() {}
+
+    public static long nowMillis() {
+        return toMillis(System.nanoTime());
+    }
+
+    public static long toMillis(long nanoTime) {
+        return START_MILLIS + (nanoTime - START_NANOS) / 1_000_000;
+    }
+}
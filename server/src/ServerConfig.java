@@ -0,0 +1,20 @@
+package com.example.wrd;
+
+// Server limits, read once at startup from -Dwrd.* system properties
+public record ServerConfig(int lobbyCount, int maxConnections, int acceptBacklog, int handshakesPerSecond,
+                           int handshakeBurst, int retryAfterMs, int metricsPort, String logDir,
+                           boolean logToConsole) {
+
+    public static ServerConfig fromSystemProperties() {
+        return new ServerConfig(
+                Integer.getInteger("wrd.lobbies", 3),
+                Integer.getInteger("wrd.maxConnections", 2000), // each holds two pooled threads, reader and writer
+                Integer.getInteger("wrd.acceptBacklog", 128),
+                Integer.getInteger("wrd.handshakesPerSecond", 200),
+                Integer.getInteger("wrd.handshakeBurst", 50),
+                Integer.getInteger("wrd.retryAfterMs", 2000),
+                Integer.getInteger("wrd.metricsPort", 9464), // 0 turns the endpoint off
+                System.getProperty("wrd.logDir", "logs"),
+                Boolean.parseBoolean(System.getProperty("wrd.logToConsole", "true")));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.wrd;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every open connection and every logged-in player on the server. The single place that
+// counts connections, rejects a second login under the same name and finds players by id
+// or name without walking the lobbies.
+public class SessionRegistry {
+    public enum Presence { LOBBY_SCREEN, IN_LOBBY, IN_GAME }
+
+    private final Set<ClientHandler> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, Session> byId = new ConcurrentHashMap<>();
+    private final Map<String, Session> byUsername = new ConcurrentHashMap<>();
+
+    public void connectionOpened(ClientHandler handler) {
+        connections.add(handler);
+    }
+
+    public void connectionClosed(ClientHandler handler) {
+        connections.remove(handler);
+    }
+
+    public Collection<ClientHandler> getConnections() {
+        return Collections.unmodifiableSet(connections);
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    // Null if the name is already logged in. The name is claimed first, so two concurrent
+    // logins with the same name cannot both get through.
+    public Session register(Player player, ClientHandler handler) {
+        Session session = new Session(player, handler, System.currentTimeMillis());
+        if (byUsername.putIfAbsent(normalize(player.getUsername()), session) != null) {
+            return null;
+        }
+        byId.put(player.getId(), session);
+        return session;
+    }
+
+    public void unregister(Session session) {
+        byId.remove(session.player().getId(), session);
+        byUsername.remove(normalize(session.player().getUsername()), session);
+    }
+
+    public Session findById(String playerId) {
+        return byId.get(playerId);
+    }
+
+    public Session findByUsername(String username) {
+        return byUsername.get(normalize(username));
+    }
+
+    public int getSessionCount() {
+        return byId.size();
+    }
+
+    public List<Session> getSessions() {
+        return new ArrayList<>(byId.values());
+    }
+
+    private static String normalize(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Presence is read from the connection's current lobby, so it never goes stale
+    public record Session(Player player, ClientHandler handler, long connectedAtMillis) {
+        public Presence presence() {
+            Lobby lobby = handler.getCurrentLobby();
+            if (lobby == null) {
+                return Presence.LOBBY_SCREEN;
+            }
+            return lobby.isGameActive() ? Presence.IN_GAME : Presence.IN_LOBBY;
+        }
+
+        public String lobbyId() {
+            Lobby lobby = handler.getCurrentLobby();
+            return lobby != null ? lobby.getId() : null;
+        }
+    }
+}
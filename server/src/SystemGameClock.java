@@ -0,0 +1,64 @@
+package com.example.wrd;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Wall-clock GameClock: a thread per game sleeping to absolute deadlines, and a
+// single-threaded scheduler per game for its timers
+final class SystemGameClock implements GameClock {
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long toMillis(long nanoTime) {
+        return ServerClock.toMillis(nanoTime);
+    }
+
+    @Override
+    public Thread runSteps(String name, LongSupplier step) {
+        Thread thread = new Thread(() -> {
+            try {
+                long next = step.getAsLong();
+                while (next != DONE) {
+                    sleepUntil(next);
+                    next = step.getAsLong();
+                }
+            } catch (InterruptedException e) {
+                // stopGame() interrupted the sleep, stop() already moved the game to STOPPED
+            }
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    // Sleeps to an absolute nanoTime deadline, so late wake-ups never add up across phases
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    @Override
+    public Timer newTimer(String name) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> new Thread(r, name));
+        // shutdown() then drops the pending tasks without interrupting the running one, which
+        // may be kickAllPlayers shutting down its own timer
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return new Timer() {
+            @Override
+            public void schedule(Runnable task, long delay, TimeUnit unit) {
+                executor.schedule(task, delay, unit);
+            }
+
+            @Override
+            public void shutdown() {
+                executor.shutdown();
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.wrd;
+
+import java.io.Serializable;
+
+// One NTP-style clock probe. The client sends its send time, the server fills in when the
+// probe arrived and when the reply left, and the client derives offset and RTT from that.
+public class TimeSync implements Serializable {
+    private static final long serialVersionUID = 436;
+
+    private final long clientSendTime;
+    private final long serverReceiveTime;
+    private long serverSendTime;
+
+    public TimeSync(long clientSendTime) {
+        this(clientSendTime, 0);
+    }
+
+    private TimeSync(long clientSendTime, long serverReceiveTime) {
+        this.clientSendTime = clientSendTime;
+        this.serverReceiveTime = serverReceiveTime;
+    }
+
+    public TimeSync reply(long serverReceiveTime) {
+        return new TimeSync(clientSendTime, serverReceiveTime);
+    }
+
+    // Set by the connection writer right before the reply goes out
+    public void stampServerSend(long serverSendTime) {
+        this.serverSendTime = serverSendTime;
+    }
+
+    public long getClientSendTime() { return clientSendTime; }
+    public long getServerReceiveTime() { return serverReceiveTime; }
+    public long getServerSendTime() { return serverSendTime; }
+
+    // Server clock minus client clock, given the client time the reply arrived
+    public long offset(long clientReceiveTime) {
+        return ((serverReceiveTime - clientSendTime) + (serverSendTime - clientReceiveTime)) / 2;
+    }
+
+    public long roundTrip(long clientReceiveTime) {
+        return (clientReceiveTime - clientSendTime) - (serverSendTime - serverReceiveTime);
+    }
+}
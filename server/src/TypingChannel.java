@@ -0,0 +1,139 @@
+package com.example.wrd;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// UDP side channel for typing snapshots. A client joins it by echoing the token it got in
+// UDP_OFFER and then acking the probe sent back, which proves datagrams get through in both
+// directions; until then, or once its acks stop, its typing stays on TCP.
+public class TypingChannel implements Runnable {
+    private final DatagramChannel channel;
+    private final Map<Long, ClientHandler> handlers = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<ByteBuffer> sendBuffers =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(TypingDatagram.MAX_SIZE));
+    private volatile boolean running;
+
+    private TypingChannel(DatagramChannel channel) {
+        this.channel = channel;
+        this.running = true;
+    }
+
+    // Returns null if the port cannot be bound, clients then simply never get an offer
+    public static TypingChannel open(int port) {
+        try {
+            DatagramChannel channel = DatagramChannel.open();
+            channel.bind(new InetSocketAddress(port));
+            return new TypingChannel(channel);
+        } catch (IOException e) {
+            System.out.println("UDP typing channel disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public long newProbeNonce() {
+        return random.nextLong();
+    }
+
+    public long register(ClientHandler handler) {
+        long token;
+        do {
+            token = random.nextLong();
+        } while (token == 0 || handlers.putIfAbsent(token, handler) != null);
+        return token;
+    }
+
+    public void unregister(long token) {
+        handlers.remove(token);
+    }
+
+    @Override
+    public void run() {
+        ByteBuffer buffer = ByteBuffer.allocate(TypingDatagram.MAX_SIZE);
+        while (running) {
+            try {
+                buffer.clear();
+                SocketAddress sender = channel.receive(buffer);
+                buffer.flip();
+                handleDatagram(sender, buffer);
+            } catch (BufferUnderflowException e) {
+                // truncated or foreign datagram, drop it
+            } catch (RuntimeException e) {
+                // one bad datagram must not take the channel down for everyone
+                e.printStackTrace();
+            } catch (IOException e) {
+                if (running) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void handleDatagram(SocketAddress sender, ByteBuffer buffer) {
+        byte type = buffer.get();
+        ClientHandler handler = handlers.get(buffer.getLong());
+        if (handler == null) {
+            return;
+        }
+
+        switch (type) {
+            case TypingDatagram.HELLO:
+                // answered to whatever address it came from, the ack proves that address is reachable
+                sendProbe(sender, handler.getUdpProbeNonce());
+                break;
+            case TypingDatagram.PROBE_ACK:
+                if (buffer.getLong() == handler.getUdpProbeNonce()) {
+                    handler.onUdpProbeAck(sender);
+                }
+                break;
+            case TypingDatagram.SNAPSHOT:
+                // only accept snapshots from the address that completed the hello
+                if (sender.equals(handler.getUdpAddress())) {
+                    int seq = buffer.getInt();
+                    handler.onUdpTypingSnapshot(seq, TypingDatagram.readString(buffer));
+                }
+                break;
+        }
+    }
+
+    private void sendProbe(SocketAddress target, long nonce) {
+        ByteBuffer buffer = sendBuffers.get();
+        buffer.clear();
+        TypingDatagram.writeProbe(buffer, nonce);
+        buffer.flip();
+        try {
+            channel.send(buffer, target);
+        } catch (IOException e) {
+            // the client repeats its hello
+        }
+    }
+
+    public void sendPlayerSnapshot(SocketAddress target, int playerSlot, int seq, String text) {
+        ByteBuffer buffer = sendBuffers.get();
+        buffer.clear();
+        try {
+            TypingDatagram.writePlayerSnapshot(buffer, playerSlot, seq, text);
+            buffer.flip();
+            channel.send(buffer, target);
+        } catch (BufferOverflowException | IOException e) {
+            // best effort: the next snapshot supersedes this one anyway
+        }
+    }
+
+    public void close() {
+        running = false;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
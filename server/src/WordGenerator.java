@@ -11,14 +11,27 @@ public class WordGenerator {
     private static List<String> level5Words;
     private static boolean loaded = false;
 
+    private final List<List<String>> levels; // five difficulty levels, see getWordListForRound
     private final Random random;
 
     public WordGenerator() {
         random = new Random();
-        if (!loaded) {
-            loadWordsFromFile();
-            loaded = true;
+        synchronized (WordGenerator.class) {
+            if (!loaded) {
+                loadWordsFromFile();
+                loaded = true;
+            }
+        }
+        levels = List.of(level1Words, level2Words, level3Words, level4Words, level5Words);
+    }
+
+    // Fixed dictionary instead of words.txt, for benchmarks and simulations
+    public WordGenerator(List<List<String>> levels, Random random) {
+        if (levels.size() != 5) {
+            throw new IllegalArgumentException("Expected 5 word levels, got " + levels.size());
         }
+        this.levels = levels;
+        this.random = random;
     }
 
     private static void loadWordsFromFile() {
@@ -103,15 +116,15 @@ public class WordGenerator {
 
     private List<String> getWordListForRound(int roundNumber) {
         if (roundNumber <= 3) {
-            return level1Words;
+            return levels.get(0);
         } else if (roundNumber <= 6) {
-            return level2Words;
+            return levels.get(1);
         } else if (roundNumber <= 9) {
-            return level3Words;
+            return levels.get(2);
         } else if (roundNumber <= 12) {
-            return level4Words;
+            return levels.get(3);
         } else {
-            return level5Words;
+            return levels.get(4);
         }
     }
 }
\ No newline at end of file
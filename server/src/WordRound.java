@@ -9,12 +9,19 @@ public class WordRound implements Serializable {
 
     private final List<String> words;
     private final int timeoutMs;
+    // absolute end of the round in server time (ServerClock), 0 if unknown
+    private final long deadlineServerTime;
     // Track which words have been claimed (by player username)
     private final List<String> claimedBy;
 
     public WordRound(List<String> words, int timeoutMs) {
+        this(words, timeoutMs, 0);
+    }
+
+    public WordRound(List<String> words, int timeoutMs, long deadlineServerTime) {
         this.words = new ArrayList<>(words);
         this.timeoutMs = timeoutMs;
+        this.deadlineServerTime = deadlineServerTime;
         this.claimedBy = new ArrayList<>();
         for (int i = 0; i < words.size(); i++) {
             claimedBy.add(null); // null means not claimed
@@ -29,6 +36,10 @@ public class WordRound implements Serializable {
         return timeoutMs;
     }
 
+    public long getDeadlineServerTime() {
+        return deadlineServerTime;
+    }
+
     public List<String> getClaimedBy() {
         return claimedBy;
     }
@@ -0,0 +1,198 @@
+package com.example.wrd;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Prefix trie over the words of one round. It is built once when the round starts
+// and never modified afterwards, so handler threads can share it without locking.
+public class WordTrie {
+    private static final int[] NO_WORDS = new int[0];
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root;
+    private final String[] words;
+    private final int wordCount;
+    private final int maxWordLength;
+
+    public WordTrie(List<String> words) {
+        this.root = new Node(null);
+        this.words = words.toArray(new String[0]);
+        this.wordCount = words.size();
+
+        int longest = 0;
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            longest = Math.max(longest, word.length());
+
+            Node node = root;
+            node.addWord(i);
+            for (int j = 0; j < word.length(); j++) {
+                node = node.childOrCreate(word.charAt(j));
+                node.addWord(i);
+            }
+            // keep the first index for duplicated words, same as WordRound.findWordIndex
+            if (node.terminalWord == -1) {
+                node.terminalWord = i;
+            }
+        }
+        this.maxWordLength = longest;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public int getMaxWordLength() {
+        return maxWordLength;
+    }
+
+    // Index of the first word equal to the given text, or -1
+    public int findWordIndex(String word) {
+        if (word == null || word.length() > maxWordLength) {
+            return -1;
+        }
+        Node node = root;
+        for (int i = 0; i < word.length() && node != null; i++) {
+            if (node.words.length == 1) {
+                // only one word below this node, a single equals() is cheaper than walking the chain
+                int index = node.words[0];
+                return words[index].equals(word) ? index : -1;
+            }
+            node = node.child(word.charAt(i));
+        }
+        return node != null ? node.terminalWord : -1;
+    }
+
+    public Cursor newCursor() {
+        return new Cursor();
+    }
+
+    // Follows one player's typed text through the trie. Not thread safe: each cursor
+    // is only advanced by the handler thread of the player that owns it.
+    public final class Cursor {
+        private Node node = root;
+        // characters typed after the text stopped being a prefix of any word
+        private int offTrack = 0;
+        private final StringBuilder text = new StringBuilder();
+
+        public void reset() {
+            node = root;
+            offTrack = 0;
+            text.setLength(0);
+        }
+
+        public void append(char c) {
+            if (offTrack == 0) {
+                Node next = node.child(c);
+                if (next != null) {
+                    node = next;
+                } else {
+                    offTrack = 1;
+                }
+            } else {
+                offTrack++;
+            }
+            text.append(c);
+        }
+
+        public void delete(int count) {
+            int n = Math.min(count, text.length());
+            for (int i = 0; i < n; i++) {
+                if (offTrack > 0) {
+                    offTrack--;
+                } else if (node.parent != null) {
+                    node = node.parent;
+                }
+            }
+            text.setLength(text.length() - n);
+        }
+
+        // Moves the cursor to a full text, only walking the part that changed
+        public void set(String newText) {
+            int common = 0;
+            int limit = Math.min(text.length(), newText.length());
+            while (common < limit && text.charAt(common) == newText.charAt(common)) {
+                common++;
+            }
+            delete(text.length() - common);
+            for (int i = common; i < newText.length(); i++) {
+                append(newText.charAt(i));
+            }
+        }
+
+        public String getText() {
+            return text.toString();
+        }
+
+        public int length() {
+            return text.length();
+        }
+
+        public boolean isOnTrack() {
+            return offTrack == 0;
+        }
+
+        public int getOffTrackLength() {
+            return offTrack;
+        }
+
+        // Indices of the words the typed text is still a prefix of (do not modify)
+        public int[] candidates() {
+            return offTrack == 0 ? node.words : NO_WORDS;
+        }
+
+        // Index of the word the typed text is exactly equal to, or -1
+        public int matchedWord() {
+            return offTrack == 0 ? node.terminalWord : -1;
+        }
+    }
+
+    private static final class Node {
+        private final Node parent;
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        private int[] words = NO_WORDS;
+        private int terminalWord = -1;
+
+        Node(Node parent) {
+            this.parent = parent;
+        }
+
+        Node child(char c) {
+            // fan-out is bounded by the alphabet and tiny in practice, a scan beats hashing
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node childOrCreate(char c) {
+            Node existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            if (size == keys.length) {
+                int capacity = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            Node created = new Node(this);
+            keys[size] = c;
+            children[size] = created;
+            size++;
+            return created;
+        }
+
+        void addWord(int index) {
+            if (words.length > 0 && words[words.length - 1] == index) {
+                return;
+            }
+            words = Arrays.copyOf(words, words.length + 1);
+            words[words.length - 1] = index;
+        }
+    }
+}